@@ -7,6 +7,7 @@ import org.primefaces.component.subtable.SubTable;
 import org.primefaces.component.contextmenu.ContextMenu;
 import org.primefaces.component.summaryrow.SummaryRow;
 import org.primefaces.context.RequestContext;
+import org.primefaces.el.PropertyPathAccessor;
 import org.primefaces.util.Constants;
 import java.util.List;
 import java.util.ArrayList;
@@ -23,6 +24,12 @@ import java.util.Map;
 import java.util.Iterator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.Set;
 import org.primefaces.model.LazyDataModel;
 import java.lang.StringBuilder;
 import java.util.List;
@@ -47,6 +54,8 @@ import org.primefaces.model.Visibility;
 import org.primefaces.model.SortOrder;
 import org.primefaces.model.SelectableDataModel;
 import org.primefaces.model.SelectableDataModelWrapper;
+import org.primefaces.model.AllRowsSelection;
+import org.primefaces.model.PageCursor;
 import java.lang.reflect.Array;
 import javax.el.ELContext;
 import javax.el.MethodExpression;
@@ -84,6 +93,7 @@ import javax.faces.event.BehaviorEvent;
     public static final String ROW_CLASS = "ui-widget-content";
     public static final String SELECTABLE_ROW_CLASS = "ui-datatable-selectable";
     public static final String EMPTY_MESSAGE_ROW_CLASS = "ui-widget-content ui-datatable-empty-message";
+    public static final String VIRTUAL_SCROLL_SPACER_CLASS = "ui-datatable-virtualscroll-spacer";
     public static final String HEADER_CLASS = "ui-datatable-header ui-widget-header ui-corner-top";
     public static final String FOOTER_CLASS = "ui-datatable-footer ui-widget-header ui-corner-bottom";
     public static final String SORTABLE_COLUMN_CLASS = "ui-sortable-column";
@@ -256,6 +266,16 @@ import javax.faces.event.BehaviorEvent;
         if(this.isFilterRequest(context)) {
             FEATURES.get(DataTableFeatureKey.FILTER).decode(context, this);
         }
+
+        //filters are decoded now
+        if(allRowsExclusions != null) {
+            if(this.isFilterRequest(context))
+                this.updateAllRowsSelection(null);          //filters changed, the client drops its "@all" selection as well
+            else
+                this.updateAllRowsSelection(new AllRowsSelection(this.getFilters(), allRowsExclusions));
+
+            allRowsExclusions = null;
+        }
 	}
 
     @Override
@@ -269,6 +289,14 @@ import javax.faces.event.BehaviorEvent;
 
             this.setSelection(null);
         }
+
+        ValueExpression allRowsSelectionVE = this.getValueExpression("allRowsSelection");
+
+        if(allRowsSelectionVE != null && this.isSelectionEnabled() && !this.isSingleSelectionMode()) {
+            allRowsSelectionVE.setValue(context.getELContext(), getStateHelper().get(PropertyKeys.allRowsSelection));
+
+            this.setAllRowsSelection(null);
+        }
         
         List<FilterMeta> filterMeta = this.getFilterMetadata();
         if(filterMeta != null && !filterMeta.isEmpty()) {
@@ -419,32 +447,20 @@ import javax.faces.event.BehaviorEvent;
     }
     
     public UIColumn findColumn(String clientId) {
-        //body columns
-        for(UIColumn column : this.getColumns()) {
-            if(column.getColumnKey().equals(clientId)) {
-                return column;
-            }
-        }
+        UIColumn column = getColumnModel().findColumn(clientId);
         
-        //header columns        
-        if(this.getFrozenColumns() > 0) {
-            UIColumn column = findColumnInGroup(clientId, this.getColumnGroup("frozenHeader"));
-            if(column == null) {
-                column = findColumnInGroup(clientId, this.getColumnGroup("scrollableHeader"));
-            }
-            
-            if(column != null) {
-                return column;
-            }
+        if(column == null && this.getFrozenColumns() > 0) {
+            throw new FacesException("Cannot find column with key: " + clientId);
         }
-        else {
-            return findColumnInGroup(clientId, this.getColumnGroup("header"));
-        }
-
-        throw new FacesException("Cannot find column with key: " + clientId);
+        
+        return column;
     }
     
     public UIColumn findColumnInGroup(String clientId, ColumnGroup group) {
+        if(group == null) {
+            return null;
+        }
+        
         FacesContext context = this.getFacesContext();
         
         for(UIComponent row : group.getChildren()) {
@@ -470,19 +486,7 @@ import javax.faces.event.BehaviorEvent;
     }
     
     public ColumnGroup getColumnGroup(String target) {
-        for(UIComponent child : this.getChildren()) {
-            if(child instanceof ColumnGroup) {
-                ColumnGroup colGroup = (ColumnGroup) child;
-                String type = colGroup.getType();
-
-                if(type != null && type.equals(target)) {
-                    return colGroup;
-                }
-
-            }
-        }
-
-        return null;
+        return getColumnModel().getColumnGroup(target);
     }
 
     public boolean hasFooterColumn() {
@@ -508,10 +512,7 @@ import javax.faces.event.BehaviorEvent;
             
             calculateFirst();
             
-            if(this.isMultiSort())
-                data = lazyModel.load(getFirst(), getRows(), getMultiSortMeta(), getFilters());
-            else
-                data = lazyModel.load(getFirst(), getRows(),  resolveSortField(), convertSortOrder(), getFilters());
+            data = loadLazyDataModel(lazyModel, getFirst(), getRows());
             
             lazyModel.setPageSize(getRows());
             lazyModel.setWrappedData(data);
@@ -527,6 +528,182 @@ import javax.faces.event.BehaviorEvent;
         }
     }
     
+    /**
+     * Loads the rows and, if the model implements countRows, the row count of the current filters.
+     * The count is cached by the model per filters and runs in parallel to load when the model allows asynchronous counting.
+     */
+    protected List<?> loadLazyDataModel(final LazyDataModel lazyModel, int first, int rows) {
+        final Map<String,Object> filters = getFilters();
+        FutureTask<Integer> countTask = null;
+        
+        if(lazyModel.isCountAsync()) {
+            countTask = new FutureTask<Integer>(new Callable<Integer>() {
+                public Integer call() {
+                    return lazyModel.count(new HashMap<String,Object>(filters));
+                }
+            });
+            
+            try {
+                RequestContext.getCurrentInstance().getApplicationContext().getExecutorService().execute(countTask);
+            }
+            catch(RejectedExecutionException e) {
+                countTask = null;
+            }
+        }
+        
+        List<?> data;
+        if(lazyModel.isKeysetPaging())
+            data = loadKeysetPage(lazyModel, first, rows, filters);
+        else if(this.isMultiSort())
+            data = lazyModel.load(first, rows, getMultiSortMeta(), filters);
+        else
+            data = lazyModel.load(first, rows, resolveSortField(), convertSortOrder(), filters);
+        
+        int rowCount;
+        if(countTask == null) {
+            rowCount = lazyModel.count(filters);
+        }
+        else {
+            try {
+                //counts on the request thread if the pool did not start the task yet
+                countTask.run();
+                rowCount = countTask.get();
+            }
+            catch(InterruptedException e) {
+                countTask.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new FacesException("Interrupted while counting rows", e);
+            }
+            catch(ExecutionException e) {
+                throw new FacesException(e.getCause());
+            }
+        }
+        
+        if(rowCount >= 0) {
+            lazyModel.setRowCount(rowCount);
+        }
+        
+        return data;
+    }
+    
+    /**
+     * Loads a page with keyset paging, the cursors of the last loaded page are kept to seek to the next or previous page
+     * as long as the sort order, filters and page size are unchanged.
+     */
+    private List<?> loadKeysetPage(LazyDataModel lazyModel, int first, int rows, Map<String,Object> filters) {
+        List<SortMeta> sortMeta = getKeysetSortMeta();
+        String sortState = getKeysetSortState(sortMeta);
+        KeysetPage previous = (KeysetPage) getStateHelper().get("keysetPage");
+        PageCursor cursor = null;
+        
+        if(first > 0 && previous != null && previous.rows == rows && previous.sortState.equals(sortState) && previous.filters.equals(filters)) {
+            if(first == previous.first + rows)
+                cursor = previous.tail;
+            else if(first == previous.first - rows)
+                cursor = previous.head;
+        }
+        
+        List<?> data = lazyModel.loadKeyset(first, rows, sortMeta, filters, cursor);
+        
+        if(data == null || data.isEmpty()) {
+            getStateHelper().remove("keysetPage");
+        }
+        else {
+            FacesContext context = getFacesContext();
+            PageCursor head = createPageCursor(context, lazyModel, data.get(0), sortMeta, true);
+            PageCursor tail = createPageCursor(context, lazyModel, data.get(data.size() - 1), sortMeta, false);
+            
+            getStateHelper().put("keysetPage", new KeysetPage(first, rows, sortState, new HashMap<String,Object>(filters), head, tail));
+        }
+        
+        return data;
+    }
+    
+    private List<SortMeta> getKeysetSortMeta() {
+        List<SortMeta> sortMeta = new ArrayList<SortMeta>();
+        
+        if(this.isMultiSort()) {
+            List<SortMeta> multiSortMeta = getMultiSortMeta();
+            if(multiSortMeta != null) {
+                sortMeta.addAll(multiSortMeta);
+            }
+        }
+        else {
+            String sortField = resolveSortField();
+            if(sortField != null) {
+                sortMeta.add(new SortMeta(getSortColumn(), sortField, convertSortOrder(), null));
+            }
+        }
+        
+        return sortMeta;
+    }
+    
+    private String getKeysetSortState(List<SortMeta> sortMeta) {
+        StringBuilder sortState = new StringBuilder();
+        for(SortMeta meta : sortMeta) {
+            sortState.append(meta.getSortField()).append(":").append(meta.getSortOrder()).append(";");
+        }
+        
+        return sortState.toString();
+    }
+    
+    private PageCursor createPageCursor(FacesContext context, LazyDataModel lazyModel, Object rowData, List<SortMeta> sortMeta, boolean backward) {
+        ELContext elContext = context.getELContext();
+        Map<String,Object> requestMap = context.getExternalContext().getRequestMap();
+        String var = this.getVar();
+        Object origVarValue = requestMap.get(var);
+        Object[] sortValues = new Object[sortMeta.size()];
+        
+        requestMap.put(var, rowData);
+        try {
+            for(int i = 0; i < sortValues.length; i++) {
+                UIColumn column = sortMeta.get(i).getColumn();
+                ValueExpression sortByVE;
+                
+                if(column == null) {
+                    sortByVE = this.getValueExpression("sortBy");
+                }
+                else {
+                    if(column.isDynamic()) {
+                        ((DynamicColumn) column).applyStatelessModel();
+                    }
+                    sortByVE = column.getValueExpression("sortBy");
+                }
+                
+                sortValues[i] = (sortByVE == null) ? null : sortByVE.getValue(elContext);
+            }
+        }
+        finally {
+            if(origVarValue == null)
+                requestMap.remove(var);
+            else
+                requestMap.put(var, origVarValue);
+        }
+        
+        return new PageCursor(sortValues, lazyModel.getRowKey(rowData), backward);
+    }
+    
+    private static class KeysetPage implements java.io.Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int first;
+        private final int rows;
+        private final String sortState;
+        private final Map<String,Object> filters;
+        private final PageCursor head;
+        private final PageCursor tail;
+        
+        KeysetPage(int first, int rows, String sortState, Map<String,Object> filters, PageCursor head, PageCursor tail) {
+            this.first = first;
+            this.rows = rows;
+            this.sortState = sortState;
+            this.filters = filters;
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+    
     public void loadLazyScrollData(int offset, int rows) {
         DataModel model = getDataModel();
         
@@ -535,12 +712,7 @@ import javax.faces.event.BehaviorEvent;
             
             List<?> data = null;
             
-            if(this.isMultiSort()) {
-                data = lazyModel.load(offset, rows, getMultiSortMeta(), getFilters());
-            }
-            else {
-                data = lazyModel.load(offset, rows, resolveSortField(), convertSortOrder(), getFilters());
-            }
+            data = loadLazyDataModel(lazyModel, offset, rows);
             
             lazyModel.setPageSize(rows);
             lazyModel.setWrappedData(data);
@@ -556,7 +728,7 @@ import javax.faces.event.BehaviorEvent;
         }
     }
         
-    protected String resolveSortField() {
+    public String resolveSortField() {
         String sortField = null;
         UIColumn column = this.getSortColumn();
         ValueExpression tableSortByVE = this.getValueExpression("sortBy");
@@ -570,24 +742,7 @@ import javax.faces.event.BehaviorEvent;
                 sortField = field;
         }
         else {
-            ValueExpression columnSortByVE = column.getValueExpression("sortBy");
-            
-            if(column.isDynamic()) {
-                ((DynamicColumn) sortColumn).applyStatelessModel();
-                Object sortByProperty = sortColumn.getSortBy();
-                String field = column.getField();
-                if(field == null)
-                    sortField = (sortByProperty == null) ? resolveDynamicField(columnSortByVE) : sortByProperty.toString();
-                else
-                    sortField = field;
-            }
-            else {
-                String field = column.getField();
-                if(field == null)
-                    sortField = (columnSortByVE == null) ? (String) column.getSortBy() : resolveStaticField(columnSortByVE);
-                else
-                    sortField = field;
-            }
+            sortField = getColumnModel().getSortField(column);
         }
         
         return sortField;
@@ -654,6 +809,23 @@ import javax.faces.event.BehaviorEvent;
     public void setScrollOffset(int scrollOffset) {
         getStateHelper().put("scrollOffset", scrollOffset);
     }
+
+    /**
+     * @return true if only a window of scrollRows rows is rendered, virtual scrolling is not available for lazy, paginated tables and frozen rows or columns
+     */
+    public boolean isVirtualScrolling() {
+        return this.isVirtualScroll() && this.isScrollable() && !this.isLazy() && this.getRows() == 0 && this.getScrollRows() > 0
+                && this.getFrozenRows() == 0 && this.getFrozenColumns() == 0;
+    }
+
+    /**
+     * @return first row of the virtual scroll window, kept within the current row count
+     */
+    public int getVirtualScrollOffset() {
+        int offset = Math.min(this.getScrollOffset(), this.getRowCount() - this.getScrollRows());
+
+        return Math.max(offset, 0);
+    }
     
     private List filterMetadata;
     public List getFilterMetadata() {
@@ -663,6 +835,22 @@ import javax.faces.event.BehaviorEvent;
         this.filterMetadata = filterMetadata;
     }
     
+    private Map<String,Object> previousFilters;
+    public Map<String,Object> getPreviousFilters() {
+        return previousFilters;
+    }
+    public void setPreviousFilters(Map<String,Object> previousFilters) {
+        this.previousFilters = previousFilters;
+    }
+    
+    public int getUnfilteredRowCount() {
+        return (java.lang.Integer) getStateHelper().eval("unfilteredRowCount", -1);
+    }
+    
+    public void setUnfilteredRowCount(int unfilteredRowCount) {
+        getStateHelper().put("unfilteredRowCount", unfilteredRowCount);
+    }
+    
     private boolean reset = false;
     
     public boolean isReset() {
@@ -758,19 +946,10 @@ import javax.faces.event.BehaviorEvent;
         // use rowKey if available and if != lazy
         // lazy must implement #getRowData
         if (hasRowKeyVe && !(model instanceof LazyDataModel)) {
-            Map<String,Object> requestMap = getFacesContext().getExternalContext().getRequestMap();
-            String var = this.getVar();
             Collection data = (Collection) getDataModel().getWrappedData();
 
             if(data != null) {
-                for(Iterator it = data.iterator(); it.hasNext();) {
-                    Object object = it.next();
-                    requestMap.put(var, object);
-
-                    if(String.valueOf(this.getRowKey()).equals(rowKey)) {
-                        return object;
-                    }
-                }
+                return getRowKeyIndex(data).get(rowKey);
             }
 
             return null;
@@ -784,11 +963,72 @@ import javax.faces.event.BehaviorEvent;
         }
     }
 
-    private List<Object> selectedRowKeys = new ArrayList<Object>();
+    /**
+     * Rows of the data by their row key, built once per request and data instance
+     * so looking up many submitted row keys does not scan the data for each key.
+     */
+    private Map<String,Object> getRowKeyIndex(Collection data) {
+        FacesContext context = getFacesContext();
+        Map<Object,Object> attributes = context.getAttributes();
+        String indexKey = this.getClientId(context) + "_rowKeyIndex";
+        RowKeyIndex index = (RowKeyIndex) attributes.get(indexKey);
+
+        if(index == null || index.data != data || index.size != data.size()) {
+            Map<String,Object> requestMap = context.getExternalContext().getRequestMap();
+            String var = this.getVar();
+            Object oldVarValue = requestMap.get(var);
+            PropertyPathAccessor accessor = PropertyPathAccessor.compile(this.getValueExpression("rowKey"), var);
+            Map<String,Object> rows = new HashMap<String,Object>(Math.max(16, (int) (data.size() / 0.75f) + 1));
+
+            for(Iterator it = data.iterator(); it.hasNext();) {
+                Object object = it.next();
+                Object key = (accessor == null) ? PropertyPathAccessor.UNRESOLVED : accessor.getValue(object);
+
+                if(key == PropertyPathAccessor.UNRESOLVED) {
+                    requestMap.put(var, object);
+                    key = this.getRowKey();
+                }
+
+                String rowKey = String.valueOf(key);
+                if(!rows.containsKey(rowKey)) {
+                    rows.put(rowKey, object);
+                }
+            }
+
+            if(oldVarValue == null)
+                requestMap.remove(var);
+            else
+                requestMap.put(var, oldVarValue);
+
+            index = new RowKeyIndex(data, rows);
+            attributes.put(indexKey, index);
+        }
+
+        return index.rows;
+    }
+
+    private static class RowKeyIndex {
+
+        private final Collection data;
+        private final int size;
+        private final Map<String,Object> rows;
+
+        RowKeyIndex(Collection data, Map<String,Object> rows) {
+            this.data = data;
+            this.size = data.size();
+            this.rows = rows;
+        }
+    }
+
+    private Set<Object> selectedRowKeys = new LinkedHashSet<Object>();
+
+    private List<Object> selectedRowKeyList;
 
     public void findSelectedRowKeys() {
         Object selection = this.getSelection();
-        selectedRowKeys = new ArrayList<Object>();
+        selectedRowKeys = new LinkedHashSet<Object>();
+        selectedRowKeyList = null;
+        resolvedAllRowsSelection = resolveAllRowsSelection();
         boolean hasRowKeyVe = this.getValueExpression("rowKey") != null;
         String var = this.getVar();
         Map<String,Object> requestMap = getFacesContext().getExternalContext().getRequestMap();
@@ -833,13 +1073,113 @@ import javax.faces.event.BehaviorEvent;
         }
     }
 
+    /**
+     * @return the selected row keys in selection order, see {@link #getSelectedRowKeySet()} for lookups
+     */
     public List<Object> getSelectedRowKeys() {
-        return selectedRowKeys;
+        if(selectedRowKeyList == null) {
+            selectedRowKeyList = Collections.unmodifiableList(new ArrayList<Object>(selectedRowKeys));
+        }
+
+        return selectedRowKeyList;
+    }
+
+    public Set<Object> getSelectedRowKeySet() {
+        return Collections.unmodifiableSet(selectedRowKeys);
+    }
+
+    private Set<String> selectAllExclusions;
+
+    /**
+     * @param selectAllExclusions keys of the rows not selected when all rows were selected on the client
+     */
+    public void setSelectAllExclusions(Set<String> selectAllExclusions) {
+        this.selectAllExclusions = selectAllExclusions;
+    }
+
+    private AllRowsSelection resolvedAllRowsSelection;
+
+    private Set<String> allRowsExclusions;
+
+    /**
+     * @return true if selecting all rows creates an AllRowsSelection instead of loading every row,
+     * enabled by binding allRowsSelection or by the symbolicSelectAll attribute
+     */
+    public boolean isAllRowsSelectionEnabled() {
+        return this.isSelectionEnabled() && !this.isSingleSelectionMode()
+                && (this.getValueExpression("allRowsSelection") != null || this.isSymbolicSelectAll());
+    }
+
+    /**
+     * @param allRowsExclusions keys of the rows not selected when all rows were selected on the client, the
+     * AllRowsSelection is created in process validations once the filters of the request are decoded
+     */
+    public void setAllRowsExclusions(Set<String> allRowsExclusions) {
+        this.allRowsExclusions = allRowsExclusions;
+    }
+
+    /**
+     * Keeps the symbolic selection for the allRowsSelection target and the lazy data model.
+     */
+    public void updateAllRowsSelection(AllRowsSelection allRowsSelection) {
+        if(this.getValueExpression("allRowsSelection") != null) {
+            this.setAllRowsSelection(allRowsSelection);
+        }
+
+        Object value = this.getValue();
+        if(value instanceof LazyDataModel) {
+            ((LazyDataModel) value).setAllRowsSelection(allRowsSelection);
+        }
+    }
+
+    /**
+     * @return the symbolic selection of all rows, from the allRowsSelection attribute or the lazy data model
+     */
+    public AllRowsSelection resolveAllRowsSelection() {
+        if(!this.isAllRowsSelectionEnabled()) {
+            return null;
+        }
+
+        AllRowsSelection allRowsSelection = this.getAllRowsSelection();
+        if(allRowsSelection == null) {
+            Object value = this.getValue();
+            if(value instanceof LazyDataModel) {
+                allRowsSelection = ((LazyDataModel) value).getAllRowsSelection();
+            }
+        }
+
+        return allRowsSelection;
+    }
+
+    /**
+     * Checks the row key against the selected row keys found by {@link #findSelectedRowKeys()}.
+     */
+    public boolean isSelectedRowKey(Object rowKey) {
+        if(resolvedAllRowsSelection != null)
+            return resolvedAllRowsSelection.isSelected(rowKey);
+        else
+            return selectedRowKeys.contains(rowKey);
     }
 
     public String getSelectedRowKeysAsString() {
         StringBuilder builder = SharedStringBuilder.get(SB_GET_SELECTED_ROW_KEYS_AS_STRING);
-        for(Iterator<Object> iter = getSelectedRowKeys().iterator(); iter.hasNext();) {
+        Set<String> exclusions = null;
+
+        if(resolvedAllRowsSelection != null)
+            exclusions = resolvedAllRowsSelection.getExcludedRowKeys();
+        else if(isAllSelectedExcept(selectAllExclusions))
+            exclusions = selectAllExclusions;
+
+        if(exclusions != null) {
+            builder.append("@all");
+            for(String rowKey : exclusions) {
+                builder.append(",").append(rowKey);
+            }
+
+            return builder.toString();
+        }
+
+        for(Iterator<Object> iter = selectedRowKeys.iterator(); iter.hasNext();) {
             builder.append(iter.next());
 
             if(iter.hasNext()) {
@@ -850,6 +1190,27 @@ import javax.faces.event.BehaviorEvent;
         return builder.toString();
     }
 
+    /**
+     * Checks whether the selected rows are still all rows except the given ones, e.g. the selection was not changed by the application.
+     */
+    private boolean isAllSelectedExcept(Set<String> exclusions) {
+        if(exclusions == null || this.getFilteredValue() != null || this.isLazy()) {
+            return false;
+        }
+
+        if(selectedRowKeys.size() != this.getRowCount() - exclusions.size()) {
+            return false;
+        }
+
+        for(Object rowKey : selectedRowKeys) {
+            if(exclusions.contains(String.valueOf(rowKey))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     public SummaryRow getSummaryRow() {
         for(UIComponent kid : getChildren()) {
             if(kid.isRendered() && kid instanceof SummaryRow) {
@@ -959,6 +1320,22 @@ import javax.faces.event.BehaviorEvent;
     
     public void setColumns(List<UIColumn> columns) {
         this.columns = columns;
+        this.columnModel = null;
+    }
+    
+    private ColumnModel columnModel;
+    
+    /**
+     * @return columns and their settings resolved once per phase, shared by the renderer and the features
+     */
+    public ColumnModel getColumnModel() {
+        FacesContext context = getFacesContext();
+        
+        if(columnModel == null || !columnModel.isValid(context)) {
+            columnModel = new ColumnModel(context, this);
+        }
+        
+        return columnModel;
     }
         
     public String getScrollState() {
@@ -19,7 +19,8 @@ public enum DynamicContentType {
 
     STREAMED_CONTENT("sc"),
     BARCODE("barcode"),
-    QR_CODE("qr");
+    QR_CODE("qr"),
+    EXPORT_JOB("export");
 
     String toString;
 
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.application.resource;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Map;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpServletResponse;
+import org.primefaces.component.export.ExportJob;
+import org.primefaces.util.Constants;
+
+/**
+ * Reports the progress of a background export as JSON when requested with the <code>status</code> parameter,
+ * otherwise sends the exported file once and deletes it.
+ */
+public class ExportJobHandler extends BaseDynamicContentHandler {
+
+    public void handle(FacesContext context) throws IOException {
+        ExternalContext externalContext = context.getExternalContext();
+        Map<String,String> params = externalContext.getRequestParameterMap();
+        String library = params.get("ln");
+        String id = params.get(Constants.DYNAMIC_CONTENT_PARAM);
+
+        if(id == null || library == null || !library.equals(Constants.LIBRARY)) {
+            return;
+        }
+
+        if(params.containsKey("status")) {
+            ExportJob job = ExportJob.find(context, id, false);
+            if(job == null) {
+                externalContext.responseSendError(HttpServletResponse.SC_NOT_FOUND, null);
+                context.responseComplete();
+                return;
+            }
+            else {
+                handleCache(externalContext, false);
+                externalContext.setResponseContentType("application/json");
+                externalContext.setResponseCharacterEncoding("UTF-8");
+
+                Writer writer = externalContext.getResponseOutputWriter();
+                writer.write("{\"status\":\"" + job.getStatus().name().toLowerCase() + "\",\"progress\":" + job.getProgress()
+                        + ",\"rows\":" + job.getExportedRows() + ",\"total\":" + job.getTotalRows() + "}");
+                writer.flush();
+
+                //a failed job has no file to download, it is reported once
+                if(job.getStatus() == ExportJob.Status.FAILED) {
+                    ExportJob.find(context, id, true);
+                }
+            }
+        }
+        else {
+            ExportJob job = ExportJob.find(context, id, false);
+            File file = (job == null) ? null : job.getFile();
+
+            //one-time key
+            if(file == null || ExportJob.find(context, id, true) == null) {
+                externalContext.responseSendError(HttpServletResponse.SC_NOT_FOUND, null);
+                context.responseComplete();
+                return;
+            }
+            else {
+                try {
+                    externalContext.setResponseStatus(HttpServletResponse.SC_OK);
+                    externalContext.setResponseContentType(job.getContentType());
+                    externalContext.setResponseHeader("Content-disposition", "attachment;filename=" + job.getFileName());
+                    //setResponseContentLength is limited to 2GB
+                    externalContext.setResponseHeader("Content-Length", String.valueOf(file.length()));
+                    externalContext.addResponseCookie(Constants.DOWNLOAD_COOKIE, "true", Collections.<String, Object>emptyMap());
+                    handleCache(externalContext, false);
+
+                    byte[] buffer = new byte[8192];
+                    int length;
+                    InputStream in = new FileInputStream(file);
+                    OutputStream out = externalContext.getResponseOutputStream();
+                    try {
+                        while((length = in.read(buffer)) >= 0) {
+                            out.write(buffer, 0, length);
+                        }
+                    }
+                    finally {
+                        in.close();
+                    }
+                }
+                finally {
+                    job.discard();
+                }
+            }
+        }
+
+        externalContext.responseFlushBuffer();
+        context.responseComplete();
+    }
+}
@@ -39,6 +39,7 @@ public class PrimeResourceHandler extends ResourceHandlerWrapper {
         this.wrapped = wrapped;
         handlers = new HashMap<String,DynamicContentHandler>();
         handlers.put(DynamicContentType.STREAMED_CONTENT.toString(), new StreamedContentHandler());
+        handlers.put(DynamicContentType.EXPORT_JOB.toString(), new ExportJobHandler());
         
         if(isBarcodeHandlerAvailable()) {
             handlers.put(DynamicContentType.BARCODE.toString(), new BarcodeHandler());
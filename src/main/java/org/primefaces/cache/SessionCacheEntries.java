@@ -0,0 +1,85 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.cache;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+import org.primefaces.context.RequestContext;
+
+/**
+ * Cache entries written on behalf of a session, removed from the {@link CacheProvider} when the session ends
+ * so entries of a single user do not outlive the user.
+ */
+public class SessionCacheEntries implements HttpSessionBindingListener, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SESSION_KEY = "primefaces.sessionCacheEntries";
+
+    private final ConcurrentMap<String,String> entries = new ConcurrentHashMap<String, String>();
+
+    private transient CacheProvider cacheProvider;
+
+    /**
+     * @return entries of the current session, the session is created if necessary
+     */
+    public static SessionCacheEntries getInstance(FacesContext context) {
+        Map<String,Object> sessionMap = context.getExternalContext().getSessionMap();
+        SessionCacheEntries instance = (SessionCacheEntries) sessionMap.get(SESSION_KEY);
+
+        if(instance == null) {
+            instance = new SessionCacheEntries();
+            sessionMap.put(SESSION_KEY, instance);
+        }
+
+        instance.cacheProvider = RequestContext.getCurrentInstance().getApplicationContext().getCacheProvider();
+
+        return instance;
+    }
+
+    public void add(String region, String key) {
+        entries.put(getEntryKey(region, key), region);
+    }
+
+    public void remove(String region, String key) {
+        entries.remove(getEntryKey(region, key));
+    }
+
+    public void valueBound(HttpSessionBindingEvent event) {
+        //NoOp
+    }
+
+    public void valueUnbound(HttpSessionBindingEvent event) {
+        //not known after the session was restored by another instance, entries have to expire there
+        if(cacheProvider != null) {
+            for(Map.Entry<String,String> entry : entries.entrySet()) {
+                String region = entry.getValue();
+                cacheProvider.remove(region, entry.getKey().substring(region.length() + 1));
+            }
+        }
+
+        entries.clear();
+    }
+
+    private static String getEntryKey(String region, String key) {
+        return region + ";" + key;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.api;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Saved states of the inputs and forms of a UIData, stored by row index and ordinal of the descendant
+ * in parallel arrays instead of one {@link SavedState} per client id.
+ * Rows are only added when one of their descendants has a state that differs from the initial state.
+ */
+class RowStateStore implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final byte VALID = 1;
+    static final byte LOCAL_VALUE_SET = 2;
+    static final byte SUBMITTED = 4;
+
+    private final int descendantCount;
+    private final int signature;
+
+    //sorted
+    private int[] rowIndexes;
+    private int rowCount;
+
+    private Object[] values;
+    private Object[] submittedValues;
+    private byte[] flags;
+
+    RowStateStore(int descendantCount, int signature) {
+        this.descendantCount = descendantCount;
+        this.signature = signature;
+        this.rowIndexes = new int[8];
+        this.values = new Object[8 * descendantCount];
+        this.submittedValues = new Object[8 * descendantCount];
+        this.flags = new byte[8 * descendantCount];
+    }
+
+    /**
+     * @return false if the descendants have changed since the states were saved
+     */
+    boolean isCompatible(int descendantCount, int signature) {
+        return this.descendantCount == descendantCount && this.signature == signature;
+    }
+
+    /**
+     * @return the slot of the row or -1 if no state is stored for the row
+     */
+    int getSlot(int rowIndex) {
+        //rows are usually saved in ascending order
+        if(rowCount > 0 && rowIndexes[rowCount - 1] == rowIndex) {
+            return rowCount - 1;
+        }
+
+        int slot = Arrays.binarySearch(rowIndexes, 0, rowCount, rowIndex);
+
+        return slot < 0 ? -1 : slot;
+    }
+
+    /**
+     * Adds a row with the initial state of all descendants.
+     * 
+     * @return the slot of the row
+     */
+    int createSlot(int rowIndex) {
+        int slot = -(Arrays.binarySearch(rowIndexes, 0, rowCount, rowIndex) + 1);
+        if(slot < 0) {
+            throw new IllegalStateException("Row " + rowIndex + " already exists.");
+        }
+
+        if(rowCount == rowIndexes.length) {
+            int capacity = rowIndexes.length * 2;
+            rowIndexes = Arrays.copyOf(rowIndexes, capacity);
+            values = Arrays.copyOf(values, capacity * descendantCount);
+            submittedValues = Arrays.copyOf(submittedValues, capacity * descendantCount);
+            flags = Arrays.copyOf(flags, capacity * descendantCount);
+        }
+
+        if(slot < rowCount) {
+            int from = slot * descendantCount;
+            int to = from + descendantCount;
+            int length = (rowCount - slot) * descendantCount;
+            System.arraycopy(rowIndexes, slot, rowIndexes, slot + 1, rowCount - slot);
+            System.arraycopy(values, from, values, to, length);
+            System.arraycopy(submittedValues, from, submittedValues, to, length);
+            System.arraycopy(flags, from, flags, to, length);
+        }
+
+        rowIndexes[slot] = rowIndex;
+        rowCount++;
+
+        int offset = slot * descendantCount;
+        for(int i = offset; i < offset + descendantCount; i++) {
+            values[i] = null;
+            submittedValues[i] = null;
+            flags[i] = VALID;
+        }
+
+        return slot;
+    }
+
+    void set(int slot, int ordinal, Object value, Object submittedValue, byte flags) {
+        int offset = slot * descendantCount + ordinal;
+        this.values[offset] = value;
+        this.submittedValues[offset] = submittedValue;
+        this.flags[offset] = flags;
+    }
+
+    Object getValue(int slot, int ordinal) {
+        return values[slot * descendantCount + ordinal];
+    }
+
+    Object getSubmittedValue(int slot, int ordinal) {
+        return submittedValues[slot * descendantCount + ordinal];
+    }
+
+    boolean is(int slot, int ordinal, byte flag) {
+        return (flags[slot * descendantCount + ordinal] & flag) != 0;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    static byte toFlags(boolean valid, boolean localValueSet, boolean submitted) {
+        return (byte) ((valid ? VALID : 0) | (localValueSet ? LOCAL_VALUE_SET : 0) | (submitted ? SUBMITTED : 0));
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        //skip unused capacity
+        rowIndexes = Arrays.copyOf(rowIndexes, Math.max(1, rowCount));
+        values = Arrays.copyOf(values, rowIndexes.length * descendantCount);
+        submittedValues = Arrays.copyOf(submittedValues, rowIndexes.length * descendantCount);
+        flags = Arrays.copyOf(flags, rowIndexes.length * descendantCount);
+
+        out.defaultWriteObject();
+    }
+}
@@ -114,6 +114,7 @@ public class UIData extends javax.faces.component.UIData {
         ,rowIndex
         ,rowIndexVar
         ,saved
+        ,rowStates
         ,lazy
         ,rowStatePreserved;
 
@@ -614,114 +615,158 @@ public class UIData extends javax.faces.component.UIData {
     
     protected void saveDescendantState() {
         FacesContext context = getFacesContext();
+        DescendantStateIndex index = getDescendantStateIndex(context);
         
-        if(this.getChildCount() > 0) {
-            for(UIComponent kid : getChildren()) {
-                saveDescendantState(kid, context);
-            }
+        if(index.indexedComponents.length > 0) {
+            saveRowStates(index);
         }
         
-        if(this.getFacetCount() > 0) {
-            for(UIComponent facet : this.getFacets().values()) {
-                saveDescendantState(facet, context);
-            }
+        for(UIComponent component : index.nestedComponents) {
+            saveDescendantState(component, context);
         }
     }
     
-    protected void saveDescendantState(UIComponent component, FacesContext context) {
-        Map<String, SavedState> saved = (Map<String, SavedState>) getStateHelper().get(PropertyKeys.saved);
+    private void saveRowStates(DescendantStateIndex index) {
+        UIComponent[] components = index.indexedComponents;
+        int rowIndex = getRowIndex();
+        RowStateStore store = getRowStateStore(index);
+        int slot = (store == null) ? -1 : store.getSlot(rowIndex);
         
-        if(component instanceof EditableValueHolder) {
-            EditableValueHolder input = (EditableValueHolder) component;
-            SavedState state = null;
-            String componentClientId = component.getClientId(context);
+        for(int i = 0; i < components.length; i++) {
+            UIComponent component = components[i];
+            Object value = null;
+            Object submittedValue = null;
+            boolean valid = true;
+            boolean localValueSet = false;
+            boolean submitted = false;
             
-            if(saved == null) {
-                state = new SavedState();
-                getStateHelper().put(PropertyKeys.saved, componentClientId, state);
+            if(component instanceof EditableValueHolder) {
+                EditableValueHolder input = (EditableValueHolder) component;
+                value = input.getLocalValue();
+                submittedValue = input.getSubmittedValue();
+                valid = input.isValid();
+                localValueSet = input.isLocalValueSet();
+            }
+            else {
+                submitted = ((UIForm) component).isSubmitted();
             }
             
-            if(state == null) {
-                state = saved.get(componentClientId);
+            if(slot == -1) {
+                //rows are only stored once they differ from the initial state
+                if(value == null && submittedValue == null && valid && !localValueSet && !submitted) {
+                    continue;
+                }
                 
-                if(state == null) {
-                    state = new SavedState();
-                    getStateHelper().put(PropertyKeys.saved, componentClientId, state);
+                if(store == null) {
+                    store = new RowStateStore(components.length, index.signature);
+                    getStateHelper().put(PropertyKeys.rowStates, store);
                 }
+                
+                slot = store.createSlot(rowIndex);
             }
             
+            store.set(slot, i, value, submittedValue, RowStateStore.toFlags(valid, localValueSet, submitted));
+        }
+    }
+    
+    /**
+     * @return the row states or null if no row has been saved or the descendants have changed since
+     */
+    private RowStateStore getRowStateStore(DescendantStateIndex index) {
+        RowStateStore store = (RowStateStore) getStateHelper().get(PropertyKeys.rowStates);
+        if(store != null && !store.isCompatible(index.indexedComponents.length, index.signature)) {
+            getStateHelper().remove(PropertyKeys.rowStates);
+            store = null;
+        }
+        
+        return store;
+    }
+    
+    /**
+     * Saves the row state of a single input or form within a nested iterator, keyed by its client id.
+     */
+    protected void saveDescendantState(UIComponent component, FacesContext context) {
+        Map<String, SavedState> saved = (Map<String, SavedState>) getStateHelper().get(PropertyKeys.saved);
+        String componentClientId = component.getClientId(context);
+        SavedState state = (saved == null) ? null : saved.get(componentClientId);
+        
+        if(state == null) {
+            state = new SavedState();
+            getStateHelper().put(PropertyKeys.saved, componentClientId, state);
+        }
+        
+        if(component instanceof EditableValueHolder) {
+            EditableValueHolder input = (EditableValueHolder) component;
             state.setValue(input.getLocalValue());
             state.setValid(input.isValid());
             state.setSubmittedValue(input.getSubmittedValue());
             state.setLocalValueSet(input.isLocalValueSet());
         } 
         else if (component instanceof UIForm) {
-            UIForm form = (UIForm) component;
-            String componentClientId = component.getClientId(context);
-            SavedState state = null;
-            if (saved == null) {
-                state = new SavedState();
-                getStateHelper().put(PropertyKeys.saved, componentClientId, state);
-            }
-            
-            if (state == null) {
-                state = saved.get(componentClientId);
-                if (state == null) {
-                    state = new SavedState();
-                    //saved.put(clientId, state);
-                    getStateHelper().put(PropertyKeys.saved, componentClientId, state);
-                }
-            }
-            state.setSubmitted(form.isSubmitted());
-        }
-
-        //save state for children
-        if(component.getChildCount() > 0) {
-            for(UIComponent kid : component.getChildren()) {
-                saveDescendantState(kid, context);
-            }
-        }
-
-        //save state for facets
-        if(component.getFacetCount() > 0) {
-            for(UIComponent facet : component.getFacets().values()) {
-                saveDescendantState(facet, context);
-            }
+            state.setSubmitted(((UIForm) component).isSubmitted());
         }
-
     }
     
     protected void restoreDescendantState() {
         FacesContext context = getFacesContext();
+        DescendantStateIndex index = getDescendantStateIndex(context);
         
-        if(getChildCount() > 0) {
-            for(UIComponent kid : getChildren()) {
-                restoreDescendantState(kid, context);
-            }
+        //reset the client ids
+        for(UIComponent component : index.components) {
+            component.setId(component.getId());
         }
         
-        if(this.getFacetCount() > 0) {
-            for(UIComponent facet : this.getFacets().values()) {
-                restoreDescendantState(facet, context);
+        if(index.indexedComponents.length > 0) {
+            restoreRowStates(index);
+        }
+        
+        for(UIComponent component : index.nestedComponents) {
+            restoreDescendantState(component, context);
+        }
+    }
+    
+    private void restoreRowStates(DescendantStateIndex index) {
+        UIComponent[] components = index.indexedComponents;
+        RowStateStore store = getRowStateStore(index);
+        int slot = (store == null) ? -1 : store.getSlot(getRowIndex());
+        
+        for(int i = 0; i < components.length; i++) {
+            UIComponent component = components[i];
+            
+            if(component instanceof EditableValueHolder) {
+                EditableValueHolder input = (EditableValueHolder) component;
+                
+                if(slot == -1) {
+                    input.setValue(null);
+                    input.setValid(true);
+                    input.setSubmittedValue(null);
+                    input.setLocalValueSet(false);
+                }
+                else {
+                    input.setValue(store.getValue(slot, i));
+                    input.setValid(store.is(slot, i, RowStateStore.VALID));
+                    input.setSubmittedValue(store.getSubmittedValue(slot, i));
+                    input.setLocalValueSet(store.is(slot, i, RowStateStore.LOCAL_VALUE_SET));
+                }
+            }
+            else {
+                ((UIForm) component).setSubmitted(slot != -1 && store.is(slot, i, RowStateStore.SUBMITTED));
             }
         }
     }
 
-
+    /**
+     * Restores the row state of a single input or form within a nested iterator.
+     */
     protected void restoreDescendantState(UIComponent component, FacesContext context) {
-        String id = component.getId();
-        component.setId(id); //reset the client id
         Map<String, SavedState> saved = (Map<String,SavedState>) getStateHelper().get(PropertyKeys.saved);
+        SavedState state = (saved == null) ? null : saved.get(component.getClientId(context));
+        if(state == null) {
+            state = new SavedState();
+        }
         
         if(component instanceof EditableValueHolder) {
             EditableValueHolder input = (EditableValueHolder) component;
-            String componentClientId = component.getClientId(context);
-
-            SavedState state = saved.get(componentClientId);
-            if(state == null) {
-                state = new SavedState();
-            }
-            
             input.setValue(state.getValue());
             input.setValid(state.isValid());
             input.setSubmittedValue(state.getSubmittedValue());
@@ -729,30 +774,105 @@ public class UIData extends javax.faces.component.UIData {
         } 
         else if (component instanceof UIForm) {
             UIForm form = (UIForm) component;
-            String componentClientId = component.getClientId(context);
-            SavedState state = saved.get(componentClientId);
-            if(state == null) {
-                state = new SavedState();
-            }
-            
             form.setSubmitted(state.getSubmitted());
             state.setSubmitted(form.isSubmitted());
         }
-
-        //restore state of children
+    }
+    
+    /**
+     * Descendants are collected once per phase instead of walking the whole subtree on every row change,
+     * the tree may change between phases e.g. when the view is refreshed before rendering.
+     */
+    private DescendantStateIndex getDescendantStateIndex(FacesContext context) {
+        Map<Object,Object> attributes = context.getAttributes();
+        DescendantStateIndex index = (DescendantStateIndex) attributes.get(this);
+        PhaseId phaseId = context.getCurrentPhaseId();
+        
+        if(index == null || index.phaseId != phaseId) {
+            List<UIComponent> components = new ArrayList<UIComponent>();
+            List<UIComponent> indexedComponents = new ArrayList<UIComponent>();
+            List<UIComponent> nestedComponents = new ArrayList<UIComponent>();
+            //the same descendants are used by the rows of all outer iterations
+            boolean nested = isNestedWithinIterator();
+            
+            if(getChildCount() > 0) {
+                for(UIComponent kid : getChildren()) {
+                    collectDescendants(kid, nested, components, indexedComponents, nestedComponents);
+                }
+            }
+            
+            if(getFacetCount() > 0) {
+                for(UIComponent facet : getFacets().values()) {
+                    collectDescendants(facet, nested, components, indexedComponents, nestedComponents);
+                }
+            }
+            
+            index = new DescendantStateIndex(phaseId, components, indexedComponents, nestedComponents);
+            attributes.put(this, index);
+        }
+        
+        return index;
+    }
+    
+    /**
+     * Inputs and forms within nested iterators have a state per row of the nested iterator,
+     * their states are saved by client id.
+     */
+    private void collectDescendants(UIComponent component, boolean nested, List<UIComponent> components, List<UIComponent> indexedComponents, List<UIComponent> nestedComponents) {
+        components.add(component);
+        
+        if(component instanceof EditableValueHolder || component instanceof UIForm) {
+            if(nested) {
+                nestedComponents.add(component);
+            }
+            else {
+                indexedComponents.add(component);
+            }
+        }
+        
+        boolean nestedChildren = nested || isIterator(component);
+        
         if(component.getChildCount() > 0) {
             for(UIComponent kid : component.getChildren()) {
-                restoreDescendantState(kid, context);
+                collectDescendants(kid, nestedChildren, components, indexedComponents, nestedComponents);
             }
         }
 
-        //restore state of facets
         if(component.getFacetCount() > 0) {
             for(UIComponent facet : component.getFacets().values()) {
-                restoreDescendantState(facet, context);
+                collectDescendants(facet, nestedChildren, components, indexedComponents, nestedComponents);
             }
         }
-
+    }
+    
+    /**
+     * Forces the descendants to be collected again, e.g. after components were added or removed.
+     */
+    protected void clearDescendantStateIndex(FacesContext context) {
+        context.getAttributes().remove(this);
+    }
+    
+    private static class DescendantStateIndex {
+        
+        private final PhaseId phaseId;
+        private final UIComponent[] components;
+        private final UIComponent[] indexedComponents;
+        private final UIComponent[] nestedComponents;
+        private final int signature;
+        
+        DescendantStateIndex(PhaseId phaseId, List<UIComponent> components, List<UIComponent> indexedComponents, List<UIComponent> nestedComponents) {
+            this.phaseId = phaseId;
+            this.components = components.toArray(new UIComponent[components.size()]);
+            this.indexedComponents = indexedComponents.toArray(new UIComponent[indexedComponents.size()]);
+            this.nestedComponents = nestedComponents.toArray(new UIComponent[nestedComponents.size()]);
+            
+            int hash = 0;
+            for(UIComponent component : this.indexedComponents) {
+                String id = component.getId();
+                hash = 31 * hash + (id == null ? 0 : id.hashCode());
+            }
+            this.signature = hash;
+        }
     }
     
     @Override
@@ -1352,8 +1472,7 @@ public class UIData extends javax.faces.component.UIData {
         if (isNested == null) {
             UIComponent parent = this;
             while (null != (parent = parent.getParent())) {
-                if (parent instanceof javax.faces.component.UIData || parent.getClass().getName().endsWith("UIRepeat") 
-                        ||(parent instanceof UITabPanel && ((UITabPanel) parent).isRepeating())) {
+                if (isIterator(parent)) {
                     isNested = Boolean.TRUE;
                     break;
                 }
@@ -1367,12 +1486,20 @@ public class UIData extends javax.faces.component.UIData {
         }
     }
     
+    private static boolean isIterator(UIComponent component) {
+        return component instanceof javax.faces.component.UIData || component.getClass().getName().endsWith("UIRepeat") 
+                || (component instanceof UITabPanel && ((UITabPanel) component).isRepeating());
+    }
+    
     protected void preDecode(FacesContext context) {
         setDataModel(null);
         Map<String, SavedState> saved = (Map<String, SavedState>) getStateHelper().get(PropertyKeys.saved);
         if (null == saved || !keepSaved(context)) {
             getStateHelper().remove(PropertyKeys.saved);
         }
+        if (!keepSaved(context)) {
+            getStateHelper().remove(PropertyKeys.rowStates);
+        }
     }
     
     protected void preValidate(FacesContext context) {
@@ -1392,6 +1519,7 @@ public class UIData extends javax.faces.component.UIData {
         if (!keepSaved(context)) {
  
             getStateHelper().remove(PropertyKeys.saved);
+            getStateHelper().remove(PropertyKeys.rowStates);
         }
     }
     
@@ -1420,6 +1548,8 @@ public class UIData extends javax.faces.component.UIData {
         }
 
         context.getApplication().publishEvent(context, PreRenderComponentEvent.class, this);
+        //listeners may have changed the children
+        clearDescendantStateIndex(context);
 
         String rendererType = getRendererType();
         if (rendererType != null) {
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.datatable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.el.ValueExpression;
+import javax.faces.component.UIComponent;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseId;
+import org.primefaces.component.api.DynamicColumn;
+import org.primefaces.component.api.UIColumn;
+import org.primefaces.component.column.Column;
+import org.primefaces.component.columngroup.ColumnGroup;
+import org.primefaces.component.columns.Columns;
+
+/**
+ * Columns of a DataTable resolved once per phase and shared by the renderer and the features,
+ * instead of scanning the children of the table and applying the model of dynamic columns for every lookup.
+ */
+public class ColumnModel {
+
+    /**
+     * Settings of a single column, resolved with the model of a dynamic column applied.
+     */
+    public static class ColumnMeta {
+
+        private final String columnKey;
+        private final ValueExpression filterBy;
+        private final ValueExpression sortBy;
+        private final String filterMatchMode;
+
+        ColumnMeta(String columnKey, ValueExpression filterBy, ValueExpression sortBy, String filterMatchMode) {
+            this.columnKey = columnKey;
+            this.filterBy = filterBy;
+            this.sortBy = sortBy;
+            this.filterMatchMode = filterMatchMode;
+        }
+
+        public String getColumnKey() {
+            return columnKey;
+        }
+
+        public ValueExpression getFilterBy() {
+            return filterBy;
+        }
+
+        public ValueExpression getSortBy() {
+            return sortBy;
+        }
+
+        public String getFilterMatchMode() {
+            return filterMatchMode;
+        }
+    }
+
+    private final DataTable table;
+    private final PhaseId phaseId;
+    private final List<UIColumn> columns;
+    private final Map<String,ColumnGroup> columnGroups = new HashMap<String, ColumnGroup>();
+    private final Map<String,ColumnMeta> columnMetas = new HashMap<String, ColumnMeta>();
+    private final Map<String,String> filterFields = new HashMap<String, String>();
+    private final Map<String,String> sortFields = new HashMap<String, String>();
+    private Map<String,UIColumn> columnsByKey;
+    private String columnSetKey;
+
+    ColumnModel(FacesContext context, DataTable table) {
+        this.table = table;
+        this.phaseId = context.getCurrentPhaseId();
+        this.columns = table.getColumns();
+
+        for(UIComponent child : table.getChildren()) {
+            if(child instanceof ColumnGroup) {
+                String type = ((ColumnGroup) child).getType();
+                if(type != null && !columnGroups.containsKey(type)) {
+                    columnGroups.put(type, (ColumnGroup) child);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if the model was resolved in another phase, the columns may have changed since
+     */
+    boolean isValid(FacesContext context) {
+        return phaseId == context.getCurrentPhaseId();
+    }
+
+    public List<UIColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return identifies the rendered and visible body columns in their current order
+     */
+    public String getColumnSetKey() {
+        if(columnSetKey == null) {
+            StringBuilder builder = new StringBuilder();
+            for(UIColumn column : columns) {
+                if(column instanceof DynamicColumn) {
+                    ((DynamicColumn) column).applyStatelessModel();
+                }
+
+                builder.append(column.getColumnKey());
+                if(!column.isRendered()) {
+                    builder.append(":r");
+                }
+                if(!column.isVisible()) {
+                    builder.append(":v");
+                }
+                builder.append(',');
+            }
+
+            columnSetKey = builder.toString();
+        }
+
+        return columnSetKey;
+    }
+
+    public ColumnGroup getColumnGroup(String type) {
+        return columnGroups.get(type);
+    }
+
+    /**
+     * Looks up body columns and columns of the header groups by their column key.
+     * 
+     * @return the column or null if there is no such column
+     */
+    public UIColumn findColumn(String columnKey) {
+        //client ids of columns contain the row index while iterating
+        if(table.getRowIndex() != -1) {
+            return findColumnInTree(columnKey);
+        }
+
+        if(columnsByKey == null) {
+            columnsByKey = new HashMap<String, UIColumn>();
+
+            for(UIColumn column : columns) {
+                putColumn(column);
+            }
+
+            if(table.getFrozenColumns() > 0) {
+                putColumns(getColumnGroup("frozenHeader"));
+                putColumns(getColumnGroup("scrollableHeader"));
+            }
+            else {
+                putColumns(getColumnGroup("header"));
+            }
+        }
+
+        return columnsByKey.get(columnKey);
+    }
+
+    private UIColumn findColumnInTree(String columnKey) {
+        for(UIColumn column : columns) {
+            if(column.getColumnKey().equals(columnKey)) {
+                return column;
+            }
+        }
+
+        if(table.getFrozenColumns() > 0) {
+            UIColumn column = table.findColumnInGroup(columnKey, getColumnGroup("frozenHeader"));
+
+            return (column == null) ? table.findColumnInGroup(columnKey, getColumnGroup("scrollableHeader")) : column;
+        }
+
+        return table.findColumnInGroup(columnKey, getColumnGroup("header"));
+    }
+
+    private void putColumn(UIColumn column) {
+        String columnKey = column.getColumnKey();
+        if(!columnsByKey.containsKey(columnKey)) {
+            columnsByKey.put(columnKey, column);
+        }
+    }
+
+    private void putColumns(ColumnGroup group) {
+        if(group == null) {
+            return;
+        }
+
+        for(UIComponent row : group.getChildren()) {
+            for(UIComponent rowChild : row.getChildren()) {
+                if(rowChild instanceof Column) {
+                    putColumn((UIColumn) rowChild);
+                }
+                else if(rowChild instanceof Columns) {
+                    for(UIColumn column : ((Columns) rowChild).getDynamicColumns()) {
+                        putColumn(column);
+                    }
+                }
+            }
+        }
+    }
+
+    public ColumnMeta getColumnMeta(UIColumn column) {
+        String columnKey = column.getColumnKey();
+        ColumnMeta meta = columnMetas.get(columnKey);
+
+        if(meta == null) {
+            if(column instanceof DynamicColumn) {
+                ((DynamicColumn) column).applyStatelessModel();
+            }
+
+            meta = new ColumnMeta(columnKey, column.getValueExpression("filterBy"), column.getValueExpression("sortBy"), column.getFilterMatchMode());
+            columnMetas.put(columnKey, meta);
+        }
+
+        return meta;
+    }
+
+    /**
+     * @return name of the field passed to a lazy model when filtering by the column
+     */
+    public String getFilterField(UIColumn column) {
+        String columnKey = column.getColumnKey();
+        if(filterFields.containsKey(columnKey)) {
+            return filterFields.get(columnKey);
+        }
+
+        ValueExpression filterByVE = getColumnMeta(column).getFilterBy();
+        String filterField;
+
+        if(column.isDynamic()) {
+            ((DynamicColumn) column).applyStatelessModel();
+            Object filterByProperty = column.getFilterBy();
+            String field = column.getField();
+            if(field == null)
+                filterField = (filterByProperty == null) ? table.resolveDynamicField(filterByVE) : filterByProperty.toString();
+            else
+                filterField = field;
+        }
+        else {
+            String field = column.getField();
+            if(field == null)
+                filterField = (filterByVE == null) ? (String) column.getFilterBy() : table.resolveStaticField(filterByVE);
+            else
+                filterField = field;
+        }
+
+        filterFields.put(columnKey, filterField);
+
+        return filterField;
+    }
+
+    /**
+     * @return name of the field passed to a lazy model when sorting by the column
+     */
+    public String getSortField(UIColumn column) {
+        String columnKey = column.getColumnKey();
+        if(sortFields.containsKey(columnKey)) {
+            return sortFields.get(columnKey);
+        }
+
+        ValueExpression sortByVE = getColumnMeta(column).getSortBy();
+        String sortField;
+
+        if(column.isDynamic()) {
+            ((DynamicColumn) column).applyStatelessModel();
+            Object sortByProperty = column.getSortBy();
+            String field = column.getField();
+            if(field == null)
+                sortField = (sortByProperty == null) ? table.resolveDynamicField(sortByVE) : sortByProperty.toString();
+            else
+                sortField = field;
+        }
+        else {
+            String field = column.getField();
+            if(field == null)
+                sortField = (sortByVE == null) ? (String) column.getSortBy() : table.resolveStaticField(sortByVE);
+            else
+                sortField = field;
+        }
+
+        sortFields.put(columnKey, sortField);
+
+        return sortField;
+    }
+}
@@ -16,6 +16,8 @@
 package org.primefaces.component.datatable;
 
 import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringWriter;
 import java.util.*;
 import java.util.logging.Logger;
 import javax.el.ELContext;
@@ -28,6 +30,8 @@ import javax.faces.component.UIPanel;
 import javax.faces.context.FacesContext;
 import javax.faces.context.ResponseWriter;
 import javax.faces.model.SelectItem;
+import org.primefaces.cache.CacheProvider;
+import org.primefaces.cache.SessionCacheEntries;
 import org.primefaces.component.api.DynamicColumn;
 import org.primefaces.component.api.UIColumn;
 import org.primefaces.component.column.Column;
@@ -40,6 +44,7 @@ import org.primefaces.component.datatable.feature.SortFeature;
 import org.primefaces.component.row.Row;
 import org.primefaces.component.subtable.SubTable;
 import org.primefaces.component.summaryrow.SummaryRow;
+import org.primefaces.context.RequestContext;
 import org.primefaces.model.SortMeta;
 import org.primefaces.model.SortOrder;
 import org.primefaces.renderkit.DataRenderer;
@@ -52,6 +57,8 @@ import org.primefaces.util.WidgetBuilder;
 public class DataTableRenderer extends DataRenderer {
     
     private final static Logger logger = Logger.getLogger(DataTableRenderer.class.getName());
+    
+    private final static String ROW_CACHE_REGION = "primefaces.rowCache";
 
     @Override
     public void decode(FacesContext context, UIComponent component) {
@@ -146,6 +153,7 @@ public class DataTableRenderer extends DataRenderer {
         //Selection
         wb.attr("selectionMode", selectionMode, null)
             .attr("rowSelectMode", table.getRowSelectMode(), "new")
+            .attr("allRowsSelection", table.isAllRowsSelectionEnabled(), false)
             .attr("nativeElements", table.isNativeElements(), false)
             .attr("disabledTextSelection", table.isDisabledTextSelection(), true);
         
@@ -165,6 +173,7 @@ public class DataTableRenderer extends DataRenderer {
         if(table.isScrollable()) {
             wb.attr("scrollable", true)
                 .attr("liveScroll", table.isLiveScroll())
+                .attr("virtualScroll", table.isVirtualScrolling(), false)
                 .attr("scrollStep", table.getScrollRows())
                 .attr("scrollLimit", table.getRowCount())
                 .attr("scrollWidth", table.getScrollWidth(), null)
@@ -850,6 +859,8 @@ public class DataTableRenderer extends DataRenderer {
         if(hasData) {
             if(subTable != null)
                 encodeSubTable(context, table, subTable, first, (first + rowCountToRender));
+            else if(table.isVirtualScrolling())
+                encodeVirtualRows(context, table, columnStart, columnEnd);
             else
                 encodeRows(context, table, first, (first + rowCountToRender), columnStart, columnEnd);
         }
@@ -913,6 +924,38 @@ public class DataTableRenderer extends DataRenderer {
         }
     }
         
+    /**
+     * Renders the rows of the virtual scroll window, rows before and after the window are represented by a spacer row each.
+     */
+    public void encodeVirtualRows(FacesContext context, DataTable table, int columnStart, int columnEnd) throws IOException {
+        int rowCount = table.getRowCount();
+        int first = table.getVirtualScrollOffset();
+        int last = Math.min(first + table.getScrollRows(), rowCount);
+        
+        encodeVirtualScrollSpacer(context, table, first);
+        encodeRows(context, table, first, last, columnStart, columnEnd);
+        encodeVirtualScrollSpacer(context, table, rowCount - last);
+    }
+    
+    protected void encodeVirtualScrollSpacer(FacesContext context, DataTable table, int rows) throws IOException {
+        if(rows <= 0) {
+            return;
+        }
+        
+        ResponseWriter writer = context.getResponseWriter();
+        
+        writer.startElement("tr", null);
+        writer.writeAttribute("class", DataTable.VIRTUAL_SCROLL_SPACER_CLASS, null);
+        writer.writeAttribute("data-rows", rows, null);
+        writer.writeAttribute("aria-hidden", "true", null);
+        
+        writer.startElement("td", null);
+        writer.writeAttribute("colspan", table.getColumnsCountWithSpan(), null);
+        writer.endElement("td");
+        
+        writer.endElement("tr");
+    }
+        
     protected void encodeFrozenRows(FacesContext context, DataTable table) throws IOException {
         int frozenRows = table.getFrozenRows();
         if(frozenRows == 0 ) {
@@ -947,10 +990,8 @@ public class DataTableRenderer extends DataRenderer {
     }
 
     public boolean encodeRow(FacesContext context, DataTable table, String clientId, int rowIndex, int columnStart, int columnEnd) throws IOException {
-        ResponseWriter writer = context.getResponseWriter();        
         boolean selectionEnabled = table.isSelectionEnabled();
         Object rowKey = null;
-        List<UIColumn> columns = table.getColumns();
         
         if(selectionEnabled) {
             //try rowKey attribute
@@ -962,7 +1003,108 @@ public class DataTableRenderer extends DataRenderer {
         }
 
         //Preselection
-        boolean selected = table.getSelectedRowKeys().contains(rowKey);
+        boolean selected = table.isSelectedRowKey(rowKey);
+
+        if(table.isRowCache() && !table.isEditingRow() && !table.isExpandedRow()) {
+            String cacheKey = getRowCacheKey(context, table, rowKey);
+            
+            if(cacheKey != null) {
+                encodeCachedRow(context, table, clientId, rowIndex, columnStart, columnEnd, rowKey, selected, cacheKey);
+                return true;
+            }
+        }
+        
+        encodeRowMarkup(context, table, clientId, rowIndex, columnStart, columnEnd, rowKey, selected);
+        
+        if(table.isExpandedRow()) {
+            ((RowExpandFeature) table.getFeature(DataTableFeatureKey.ROW_EXPAND)).encodeExpansion(context, this, table, rowIndex);
+        }
+
+        return true;
+    }
+    
+    /**
+     * Writes the cached markup of the row, the row is rendered and cached if there is no markup for its current state.
+     * Without a rowCacheRegion, markup is cached per session in a common region and removed when the session ends,
+     * rows are not cached if there is no session.
+     */
+    protected void encodeCachedRow(FacesContext context, DataTable table, String clientId, int rowIndex, int columnStart, int columnEnd, Object rowKey, boolean selected, String cacheKey) throws IOException {
+        ResponseWriter writer = context.getResponseWriter();
+        CacheProvider cacheProvider = RequestContext.getCurrentInstance().getApplicationContext().getCacheProvider();
+        String region = table.getRowCacheRegion();
+        String entryKey = cacheKey;
+        boolean sessionRegion = (region == null);
+        if(sessionRegion) {
+            String sessionId = context.getExternalContext().getSessionId(false);
+            if(sessionId == null || sessionId.length() == 0) {
+                encodeRowMarkup(context, table, clientId, rowIndex, columnStart, columnEnd, rowKey, selected);
+                return;
+            }
+            
+            region = ROW_CACHE_REGION;
+            entryKey = sessionId + ";" + cacheKey;
+        }
+        
+        String state = getRowCacheState(context, table, rowIndex, selected, columnStart, columnEnd);
+        CachedRow cachedRow = (CachedRow) cacheProvider.get(region, entryKey);
+        
+        if(cachedRow == null || !cachedRow.state.equals(state)) {
+            StringWriter stringWriter = new StringWriter();
+            context.setResponseWriter(writer.cloneWithWriter(stringWriter));
+            try {
+                encodeRowMarkup(context, table, clientId, rowIndex, columnStart, columnEnd, rowKey, selected);
+            }
+            finally {
+                context.setResponseWriter(writer);
+            }
+            
+            //a row has a single entry, other states of the row replace it
+            cachedRow = new CachedRow(state, stringWriter.toString());
+            cacheProvider.put(region, entryKey, cachedRow);
+            
+            if(sessionRegion) {
+                SessionCacheEntries.getInstance(context).add(region, entryKey);
+            }
+        }
+        
+        writer.write(cachedRow.markup);
+    }
+    
+    /**
+     * @return key of the row markup or null if the row can't be cached because it has no row key
+     */
+    protected String getRowCacheKey(FacesContext context, DataTable table, Object rowKey) {
+        Object cacheRowKey = rowKey;
+        if(cacheRowKey == null) {
+            cacheRowKey = table.getRowKey();
+        }
+        if(cacheRowKey == null) {
+            return null;
+        }
+        
+        return table.getClientId(context) + ";" + cacheRowKey;
+    }
+    
+    /**
+     * @return everything besides the row data the markup of the row depends on
+     */
+    protected String getRowCacheState(FacesContext context, DataTable table, int rowIndex, boolean selected, int columnStart, int columnEnd) {
+        //client ids of the cells and the row classes depend on the row index
+        StringBuilder builder = new StringBuilder();
+        builder.append(context.getViewRoot().getLocale()).append(';')
+                .append(rowIndex).append(';')
+                .append(table.getRowVersion()).append(';')
+                .append(selected).append(';')
+                .append(columnStart).append('-').append(columnEnd).append(';')
+                .append(table.getColumnModel().getColumnSetKey());
+        
+        return builder.toString();
+    }
+    
+    protected void encodeRowMarkup(FacesContext context, DataTable table, String clientId, int rowIndex, int columnStart, int columnEnd, Object rowKey, boolean selected) throws IOException {
+        ResponseWriter writer = context.getResponseWriter();
+        boolean selectionEnabled = table.isSelectionEnabled();
+        List<UIColumn> columns = table.getColumns();
 
         String userRowStyleClass = table.getRowStyleClass();
         String rowStyleClass = rowIndex % 2 == 0 ? DataTable.ROW_CLASS + " " + DataTable.EVEN_ROW_CLASS : DataTable.ROW_CLASS + " " + DataTable.ODD_ROW_CLASS;
@@ -1007,12 +1149,6 @@ public class DataTableRenderer extends DataRenderer {
         }
 
         writer.endElement("tr");
-        
-        if(table.isExpandedRow()) {
-            ((RowExpandFeature) table.getFeature(DataTableFeatureKey.ROW_EXPAND)).encodeExpansion(context, this, table, rowIndex);
-        }
-
-        return true;
     }
 
     protected void encodeCell(FacesContext context, DataTable table, UIColumn column, String clientId, boolean selected) throws IOException {
@@ -1408,4 +1544,17 @@ public class DataTableRenderer extends DataRenderer {
         }
         return headersText;
     }
-}
\ No newline at end of file
+    
+    private static class CachedRow implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final String state;
+        private final String markup;
+
+        CachedRow(String state, String markup) {
+            this.state = state;
+            this.markup = markup;
+        }
+    }
+}
@@ -19,7 +19,6 @@ import java.io.IOException;
 import java.util.*;
 import java.util.logging.Logger;
 import javax.el.ELContext;
-import javax.el.MethodExpression;
 import javax.el.ValueExpression;
 import javax.faces.FacesException;
 import org.primefaces.component.api.UIColumn;
@@ -27,13 +26,16 @@ import javax.faces.component.UIComponent;
 import javax.faces.component.UINamingContainer;
 import javax.faces.component.ValueHolder;
 import javax.faces.context.FacesContext;
+import javax.faces.model.ListDataModel;
 import org.primefaces.component.api.DynamicColumn;
 import org.primefaces.component.column.Column;
 import org.primefaces.component.columngroup.ColumnGroup;
 import org.primefaces.component.columns.Columns;
+import org.primefaces.component.datatable.ColumnModel;
 import org.primefaces.component.datatable.DataTable;
 import org.primefaces.component.datatable.DataTableRenderer;
 import org.primefaces.component.row.Row;
+import org.primefaces.context.ApplicationContext;
 import org.primefaces.context.RequestContext;
 import org.primefaces.event.data.PostFilterEvent;
 import org.primefaces.model.FilterMeta;
@@ -55,6 +57,8 @@ public class FilterFeature implements DataTableFeature {
     private final static String EQUALS_MODE = "equals";
     private final static String IN_MODE = "in";
     private final static String GLOBAL_MODE = "global";
+    
+    private final static int MIN_PARALLEL_CHUNK_SIZE = 1000;
   
     final static Map<String,FilterConstraint> FILTER_CONSTRAINTS;
     
@@ -89,13 +93,17 @@ public class FilterFeature implements DataTableFeature {
         String globalFilterParam = table.getClientId(context) + UINamingContainer.getSeparatorChar(context) + "globalFilter";
         List<FilterMeta> filterMetadata = this.populateFilterMetaData(context, table);
         Map<String,Object> filterParameterMap = this.populateFilterParameterMap(context, table, filterMetadata, globalFilterParam);
+        table.setPreviousFilters(table.getFilters());
         table.setFilters(filterParameterMap);
         table.setFilterMetadata(filterMetadata);
+        table.setScrollOffset(0);
     }
             
     public void encode(FacesContext context, DataTableRenderer renderer, DataTable table) throws IOException {
         Map<String,String> params = context.getExternalContext().getRequestParameterMap();
         
+        List<?> previousFilteredValue = table.getFilteredValue();
+        
         //reset state
         String clientId = table.getClientId(context);
         table.updateFilteredValue(context, null);
@@ -117,7 +125,15 @@ public class FilterFeature implements DataTableFeature {
         }
         else {
             String globalFilterParam = clientId + UINamingContainer.getSeparatorChar(context) + "globalFilter";
-            filter(context, table, table.getFilterMetadata(), globalFilterParam);
+            List<FilterMeta> filterMetadata = table.getFilterMetadata();
+            
+            //narrowed filters only need to test the rows that passed the previous ones,
+            //not with a rowIndexVar as filterBy expressions would see the index within the previous result
+            if(table.isIncrementalFilter() && table.getRowIndexVar() == null && previousFilteredValue != null && table.getRowCount() == table.getUnfilteredRowCount()
+                    && isRefinement(table, filterMetadata, table.getPreviousFilters(), table.getFilters()))
+                filter(context, table, filterMetadata, globalFilterParam, previousFilteredValue);
+            else
+                filter(context, table, filterMetadata, globalFilterParam);
                                   
             //sort new filtered data to restore sort state
             boolean sorted = (table.getValueExpression("sortBy") != null || table.getSortBy() != null);
@@ -137,55 +153,78 @@ public class FilterFeature implements DataTableFeature {
     }
     
     public void filter(FacesContext context, DataTable table, List<FilterMeta> filterMetadata, String globalFilterParam) {
+        filter(context, table, filterMetadata, globalFilterParam, null);
+    }
+    
+    /**
+     * @param candidates rows to filter instead of the table data, e.g. the result of a broader filter
+     */
+    protected void filter(FacesContext context, DataTable table, List<FilterMeta> filterMetadata, String globalFilterParam, List<?> candidates) {
         Map<String,String> params = context.getExternalContext().getRequestParameterMap();
+        Map<String,Object> requestMap = context.getExternalContext().getRequestMap();
         List filteredData = new ArrayList();
-        Locale filterLocale = table.resolveDataLocale();
         boolean hasGlobalFilter = globalFilterParam != null ? params.containsKey(globalFilterParam) : false;
         String globalFilterValue = hasGlobalFilter ? params.get(globalFilterParam): null;
-        GlobalFilterConstraint globalFilterConstraint = (GlobalFilterConstraint) FILTER_CONSTRAINTS.get(GLOBAL_MODE);
         ELContext elContext = context.getELContext();
+        String var = table.getVar();
+        RowMatcher matcher = new RowMatcher(this, table.getColumnModel(), filterMetadata, var, table.resolveDataLocale(), globalFilterValue, FILTER_CONSTRAINTS.get(GLOBAL_MODE));
+        List data = candidates;
         
-        for(int i = 0; i < table.getRowCount(); i++) {
-            table.setRowIndex(i);
-            boolean localMatch = true;
-            boolean globalMatch = false;
-
-            for(FilterMeta filterMeta : filterMetadata) {
-                Object filterValue = filterMeta.getFilterValue();
-                UIColumn column = filterMeta.getColumn();
-                MethodExpression filterFunction = column.getFilterFunction();
-                ValueExpression filterByVE = filterMeta.getFilterByVE();
+        if(data == null) {
+            data = getFilterableData(table);
+            table.setUnfilteredRowCount(data == null ? table.getRowCount() : data.size());
+        }
+        
+        if(data == null) {
+            for(int i = 0; i < table.getRowCount(); i++) {
+                table.setRowIndex(i);
+                Object rowData = table.getRowData();
                 
-                if(column instanceof DynamicColumn) {
-                    ((DynamicColumn) column).applyStatelessModel();
+                if(matcher.matches(elContext, rowData, requestMap, var)) {
+                    filteredData.add(rowData);
                 }
-                
-                Object columnValue = filterByVE.getValue(elContext);
-                FilterConstraint filterConstraint = this.getFilterConstraint(column);
+            }
+        }
+        else {
+            //read column values straight from the rows, EL is only needed for expressions that can't be compiled
+            String rowIndexVar = table.getRowIndexVar();
+            Object oldVarValue = (var == null) ? null : requestMap.get(var);
+            Object oldRowIndexVarValue = (rowIndexVar == null) ? null : requestMap.get(rowIndexVar);
+            byte[] results = null;
+            
+            if(table.isParallelFilter() && data.size() >= table.getParallelFilterThreshold() && matcher.isCompiled()) {
+                results = parallelFilter(data, matcher);
+            }
+            
+            try {
+                int i = 0;
+                for(Iterator it = data.iterator(); it.hasNext(); i++) {
+                    Object rowData = it.next();
+                    
+                    if(results != null && results[i] != RowMatcher.DEFERRED) {
+                        if(results[i] == RowMatcher.MATCH) {
+                            filteredData.add(rowData);
+                        }
+                        
+                        continue;
+                    }
 
-                if(hasGlobalFilter && !globalMatch) {
-                    globalMatch = globalFilterConstraint.applies(columnValue, globalFilterValue, filterLocale);
-                }
+                    if(matcher.isRequiresEL() && var != null) {
+                        requestMap.put(var, rowData);
 
-                if(filterFunction != null) {
-                    localMatch = (Boolean) filterFunction.invoke(elContext, new Object[]{columnValue, filterValue, filterLocale});
-                }
-                else if(!filterConstraint.applies(columnValue, filterValue, filterLocale)) {
-                    localMatch = false;
-                }
-                
-                if(!localMatch) {
-                    break;
-                }
-            }
+                        if(rowIndexVar != null) {
+                            requestMap.put(rowIndexVar, i);
+                        }
+                    }
 
-            boolean matches = localMatch;
-            if(hasGlobalFilter) {
-                matches = localMatch && globalMatch;
+                    if(matcher.matches(elContext, rowData, requestMap, var)) {
+                        filteredData.add(rowData);
+                    }
+                }
             }
-
-            if(matches) {
-                filteredData.add(table.getRowData());
+            finally {
+                restoreRequestAttribute(requestMap, var, oldVarValue);
+                restoreRequestAttribute(requestMap, rowIndexVar, oldRowIndexVarValue);
             }
         }
 
@@ -206,6 +245,83 @@ public class FilterFeature implements DataTableFeature {
 
         table.setRowIndex(-1);  //reset datamodel
     }
+    
+    /**
+     * Tests the rows in chunks on the application thread pool, chunks rejected by the pool run on the request thread.
+     * 
+     * @return match result per row, in the order of the data
+     */
+    protected byte[] parallelFilter(List data, RowMatcher matcher) {
+        ApplicationContext applicationContext = RequestContext.getCurrentInstance().getApplicationContext();
+        int size = data.size();
+        int chunks = Math.max(1, Math.min(applicationContext.getConfig().getThreadPoolSize() * 4, size / MIN_PARALLEL_CHUNK_SIZE));
+        int chunkSize = (size + chunks - 1) / chunks;
+        byte[] results = new byte[size];
+        List<FilterTask> tasks = new ArrayList<FilterTask>(chunks);
+        
+        for(int from = 0; from < size; from += chunkSize) {
+            tasks.add(new FilterTask(data, matcher, results, from, Math.min(size, from + chunkSize)));
+        }
+        
+        ParallelTasks.run(applicationContext.getExecutorService(), tasks);
+        
+        return results;
+    }
+    
+    private static class FilterTask implements Runnable {
+        
+        private final List data;
+        private final RowMatcher matcher;
+        private final byte[] results;
+        private final int from;
+        private final int to;
+
+        public FilterTask(List data, RowMatcher matcher, byte[] results, int from, int to) {
+            this.data = data;
+            this.matcher = matcher;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+        
+        public void run() {
+            int i = from;
+            for(Iterator it = data.subList(from, to).iterator(); it.hasNext(); i++) {
+                results[i] = matcher.test(it.next());
+            }
+        }
+    }
+    
+    /**
+     * Returns the list backing a non-lazy table so rows can be filtered without moving the row cursor,
+     * or null when the value is not list based.
+     */
+    private List getFilterableData(DataTable table) {
+        Object value = table.getValue();
+        
+        if(value instanceof List) {
+            return (List) value;
+        }
+        else if(value instanceof ListDataModel) {
+            Object wrappedData = ((ListDataModel) value).getWrappedData();
+            if(wrappedData instanceof List) {
+                return (List) wrappedData;
+            }
+        }
+        
+        return null;
+    }
+    
+    private void restoreRequestAttribute(Map<String,Object> requestMap, String name, Object value) {
+        if(name == null) {
+            return;
+        }
+        
+        if(value == null)
+            requestMap.remove(name);
+        else
+            requestMap.put(name, value);
+    }
         
     private Map<String,Object> populateFilterParameterMap(FacesContext context, DataTable table, List<FilterMeta> filterMetadata, String globalFilterParam) {
         Map<String,String> params = context.getExternalContext().getRequestParameterMap(); 
@@ -216,27 +332,7 @@ public class FilterFeature implements DataTableFeature {
             UIColumn column = filterMeta.getColumn();
             
             if(filterValue != null && !filterValue.toString().trim().equals(Constants.EMPTY_STRING)) {
-                String filterField = null;
-                ValueExpression filterByVE = column.getValueExpression("filterBy");
-                
-                if(column.isDynamic()) {
-                    ((DynamicColumn) column).applyStatelessModel();
-                    Object filterByProperty = column.getFilterBy();
-                    String field = column.getField();
-                    if(field == null)
-                        filterField = (filterByProperty == null) ? table.resolveDynamicField(filterByVE) : filterByProperty.toString();
-                    else
-                        filterField = field;
-                }
-                else {
-                    String field = column.getField();
-                    if(field == null)
-                        filterField = (filterByVE == null) ? (String) column.getFilterBy(): table.resolveStaticField(filterByVE);
-                    else
-                        filterField = field;
-                }
-
-                filterParameterMap.put(filterField, filterValue);
+                filterParameterMap.put(resolveFilterField(table, column), filterValue);
             }
         }
 
@@ -247,6 +343,66 @@ public class FilterFeature implements DataTableFeature {
         return filterParameterMap;
     }
     
+    private String resolveFilterField(DataTable table, UIColumn column) {
+        return table.getColumnModel().getFilterField(column);
+    }
+    
+    /**
+     * Checks whether every row accepted by the current filters was also accepted by the previous filters,
+     * e.g. when characters were appended to a startsWith or contains filter.
+     */
+    private boolean isRefinement(DataTable table, List<FilterMeta> filterMetadata, Map<String,Object> previousFilters, Map<String,Object> filters) {
+        if(previousFilters == null || filters == null || !filters.keySet().containsAll(previousFilters.keySet())) {
+            return false;
+        }
+        
+        Locale locale = table.resolveDataLocale();
+        
+        if(!isRefinement(GLOBAL_MODE, previousFilters.get("globalFilter"), filters.get("globalFilter"), locale)) {
+            return false;
+        }
+        
+        for(FilterMeta filterMeta : filterMetadata) {
+            UIColumn column = filterMeta.getColumn();
+            String filterField = resolveFilterField(table, column);
+            Object previousValue = previousFilters.get(filterField);
+            
+            if(previousValue == null || previousValue.equals(filters.get(filterField))) {
+                continue;
+            }
+            
+            if(column.getFilterFunction() != null || !isRefinement(column.getFilterMatchMode(), previousValue, filters.get(filterField), locale)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    private boolean isRefinement(String matchMode, Object previousValue, Object value, Locale locale) {
+        if(previousValue == null || previousValue.equals(value)) {
+            return true;
+        }
+        
+        if(value == null) {
+            return false;
+        }
+        
+        String previousText = previousValue.toString().trim().toLowerCase(locale);
+        String text = value.toString().trim().toLowerCase(locale);
+        
+        if(matchMode.equals(STARTS_WITH_MATCH_MODE))
+            return text.startsWith(previousText);
+        else if(matchMode.equals(ENDS_WITH_MATCH_MODE))
+            return text.endsWith(previousText);
+        else if(matchMode.equals(CONTAINS_MATCH_MODE) || matchMode.equals(GLOBAL_MODE))
+            return text.contains(previousText);
+        else if(matchMode.equals(EXACT_MATCH_MODE))
+            return text.equals(previousText);
+        else
+            return false;
+    }
+    
     public List<FilterMeta> populateFilterMetaData(FacesContext context, DataTable table) {
         List<FilterMeta> filterMetadata = new ArrayList<FilterMeta>();
         String separator = String.valueOf(UINamingContainer.getSeparatorChar(context));
@@ -254,7 +410,7 @@ public class FilterFeature implements DataTableFeature {
         boolean hasFrozenColumns = table.getFrozenColumns() > 0;
                         
         if(!hasFrozenColumns) {
-            ColumnGroup headerGroup = getColumnGroup(table, "header");
+            ColumnGroup headerGroup = table.getColumnGroup("header");
             
             if(headerGroup != null)
                 populateFilterMetaDataInColumnGroup(context, filterMetadata, headerGroup, params, separator);
@@ -262,8 +418,8 @@ public class FilterFeature implements DataTableFeature {
                 populateFilterMetaDataWithoutColumnGroups(context, table, filterMetadata, params, separator);
         }
         else {
-            ColumnGroup frozenHeaderGroup = getColumnGroup(table, "frozenHeader");
-            ColumnGroup scrollableHeaderGroup = getColumnGroup(table, "scrollableHeader");
+            ColumnGroup frozenHeaderGroup = table.getColumnGroup("frozenHeader");
+            ColumnGroup scrollableHeaderGroup = table.getColumnGroup("scrollableHeader");
             
             if(frozenHeaderGroup != null) {
                 populateFilterMetaDataInColumnGroup(context, filterMetadata, frozenHeaderGroup, params, separator);
@@ -324,25 +480,31 @@ public class FilterFeature implements DataTableFeature {
     }
    
    private void populateFilterMetaDataWithoutColumnGroups(FacesContext context, DataTable table, List<FilterMeta> filterMetadata, Map<String,String> params, String separator) {
-       for(UIColumn column : table.getColumns()) {
-            ValueExpression columnFilterByVE = column.getValueExpression("filterBy");
+       ColumnModel columnModel = table.getColumnModel();
+       
+       for(UIColumn column : columnModel.getColumns()) {
+            ValueExpression columnFilterByVE = columnModel.getColumnMeta(column).getFilterBy();
 
             if (columnFilterByVE != null) {
                 UIComponent filterFacet = column.getFacet("filter");                    
                 ValueExpression filterByVE = columnFilterByVE;
                 Object filterValue = null;
-                String filterId = null;
 
                 if(column instanceof Column) {
-                    filterId = column.getClientId(context) + separator + "filter";
-                    filterValue = (filterFacet == null) ? params.get(filterId): ((ValueHolder) filterFacet).getLocalValue();
+                    filterValue = (filterFacet == null) ? params.get(column.getClientId(context) + separator + "filter") : ((ValueHolder) filterFacet).getLocalValue();
                 }
                 else if(column instanceof DynamicColumn) {
-                    DynamicColumn dynamicColumn = (DynamicColumn) column;
-                    dynamicColumn.applyModel();
-                    filterId = dynamicColumn.getContainerClientId(context) + separator + "filter";
-                    filterValue = (filterFacet == null) ? params.get(filterId): ((ValueHolder) filterFacet).getLocalValue();
-                    dynamicColumn.cleanModel();
+                    if(filterFacet == null) {
+                        //column key is the client id of the dynamic column
+                        filterValue = params.get(column.getColumnKey() + separator + "filter");
+                    }
+                    else {
+                        //local value of the facet is part of the row state
+                        DynamicColumn dynamicColumn = (DynamicColumn) column;
+                        dynamicColumn.applyModel();
+                        filterValue = ((ValueHolder) filterFacet).getLocalValue();
+                        dynamicColumn.cleanModel();
+                    }
                 }
 
                 filterMetadata.add(new FilterMeta(column, filterByVE, filterValue));
@@ -350,24 +512,11 @@ public class FilterFeature implements DataTableFeature {
         }
    }
     
-   private ColumnGroup getColumnGroup(DataTable table, String target) {
-        for(UIComponent child : table.getChildren()) {
-            if(child instanceof ColumnGroup) {
-                ColumnGroup colGroup = (ColumnGroup) child;
-                String type = colGroup.getType();
-
-                if(type != null && type.equals(target)) {
-                    return colGroup;
-                }
-
-            }
-        }
-
-        return null;
-    }
-   
     public FilterConstraint getFilterConstraint(UIColumn column) {
-        String filterMatchMode = column.getFilterMatchMode();
+        return getFilterConstraint(column.getFilterMatchMode());
+    }
+    
+    public FilterConstraint getFilterConstraint(String filterMatchMode) {
         FilterConstraint filterConstraint  = FILTER_CONSTRAINTS.get(filterMatchMode);
         
         if(filterConstraint == null) { 
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.datatable.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import javax.faces.FacesException;
+
+/**
+ * Runs tasks on the application thread pool and waits for them, tasks rejected by the pool or not started yet
+ * run on the calling thread, so a busy pool never blocks the request.
+ */
+class ParallelTasks {
+
+    private ParallelTasks() {}
+
+    static void run(ExecutorService executor, List<? extends Runnable> tasks) {
+        List<FutureTask<?>> futures = new ArrayList<FutureTask<?>>(tasks.size());
+
+        for(Runnable task : tasks) {
+            FutureTask<Object> future = new FutureTask<Object>(task, null);
+            try {
+                executor.execute(future);
+                futures.add(future);
+            }
+            catch(RejectedExecutionException e) {
+                task.run();
+            }
+        }
+
+        try {
+            for(FutureTask<?> future : futures) {
+                //no-op if a worker already started the task
+                future.run();
+                future.get();
+            }
+        }
+        catch(InterruptedException e) {
+            for(FutureTask<?> future : futures) {
+                future.cancel(true);
+            }
+
+            Thread.currentThread().interrupt();
+            throw new FacesException("Interrupted while waiting for parallel tasks", e);
+        }
+        catch(ExecutionException e) {
+            for(FutureTask<?> future : futures) {
+                future.cancel(true);
+            }
+
+            throw new FacesException(e.getCause());
+        }
+    }
+}
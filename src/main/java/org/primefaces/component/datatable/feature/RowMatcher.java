@@ -0,0 +1,201 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.datatable.feature;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.el.ELContext;
+import javax.el.MethodExpression;
+import javax.el.ValueExpression;
+import org.primefaces.component.api.DynamicColumn;
+import org.primefaces.component.api.UIColumn;
+import org.primefaces.component.datatable.ColumnModel;
+import org.primefaces.el.PropertyPathAccessor;
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.filter.FilterConstraint;
+import org.primefaces.model.filter.PreparedFilterConstraint;
+import org.primefaces.model.filter.StringFilterConstraint;
+
+/**
+ * Filter state of a single filter request, column settings are resolved once instead of per row.
+ */
+class RowMatcher {
+
+    static final byte NO_MATCH = 0;
+    static final byte MATCH = 1;
+    static final byte DEFERRED = 2;
+
+    private final UIColumn[] columns;
+    private final ValueExpression[] filterByVEs;
+    private final PropertyPathAccessor[] accessors;
+    private final PreparedFilterConstraint[] constraints;
+    private final MethodExpression[] filterFunctions;
+    private final Object[] filterValues;
+    private final Locale locale;
+    private final PreparedFilterConstraint globalFilterConstraint;
+    private final boolean requiresEL;
+    private final boolean hasFilterFunction;
+
+    RowMatcher(FilterFeature feature, ColumnModel columnModel, List<FilterMeta> filterMetadata, String var, Locale locale, String globalFilterValue, FilterConstraint globalFilterConstraint) {
+        int size = filterMetadata.size();
+        this.columns = new UIColumn[size];
+        this.filterByVEs = new ValueExpression[size];
+        this.accessors = new PropertyPathAccessor[size];
+        this.constraints = new PreparedFilterConstraint[size];
+        this.filterFunctions = new MethodExpression[size];
+        this.filterValues = new Object[size];
+        this.locale = locale;
+        this.globalFilterConstraint = (globalFilterValue == null) ? null : prepare(globalFilterConstraint, globalFilterValue, locale);
+
+        boolean el = false;
+        boolean function = false;
+        for(int i = 0; i < size; i++) {
+            FilterMeta filterMeta = filterMetadata.get(i);
+            UIColumn column = filterMeta.getColumn();
+
+            if(column instanceof DynamicColumn) {
+                ((DynamicColumn) column).applyStatelessModel();
+            }
+            else {
+                accessors[i] = PropertyPathAccessor.compile(filterMeta.getFilterByVE(), var);
+            }
+
+            columns[i] = column;
+            filterByVEs[i] = filterMeta.getFilterByVE();
+            filterValues[i] = filterMeta.getFilterValue();
+            filterFunctions[i] = column.getFilterFunction();
+            constraints[i] = prepare(feature.getFilterConstraint(columnModel.getColumnMeta(column).getFilterMatchMode()), filterValues[i], locale);
+            el = el || (accessors[i] == null);
+            function = function || (filterFunctions[i] != null);
+        }
+
+        this.requiresEL = el;
+        this.hasFilterFunction = function;
+    }
+
+    /**
+     * @return true if at least one filterBy expression has to be evaluated by EL for every row
+     */
+    boolean isRequiresEL() {
+        return requiresEL;
+    }
+
+    /**
+     * @return true if rows can be tested without the FacesContext, e.g. on a worker thread
+     */
+    boolean isCompiled() {
+        return !requiresEL && !hasFilterFunction;
+    }
+
+    /**
+     * Tests the row on the request thread, falls back to EL for expressions that can't be compiled.
+     */
+    boolean matches(ELContext elContext, Object rowData, Map<String,Object> requestMap, String var) {
+        return test(elContext, rowData, requestMap, var) == MATCH;
+    }
+
+    /**
+     * Tests the row without any access to the FacesContext, only valid if {@link #isCompiled()}.
+     *
+     * @return {@link #MATCH}, {@link #NO_MATCH} or {@link #DEFERRED} if the row needs to be tested again with EL
+     */
+    byte test(Object rowData) {
+        return test(null, rowData, null, null);
+    }
+
+    private byte test(ELContext elContext, Object rowData, Map<String,Object> requestMap, String var) {
+        boolean hasGlobalFilter = (globalFilterConstraint != null);
+        boolean globalMatch = false;
+
+        for(int i = 0; i < columns.length; i++) {
+            Object columnValue = getColumnValue(elContext, i, rowData, requestMap, var);
+            if(columnValue == PropertyPathAccessor.UNRESOLVED) {
+                return DEFERRED;
+            }
+
+            if(hasGlobalFilter && !globalMatch) {
+                globalMatch = globalFilterConstraint.applies(columnValue);
+            }
+
+            if(filterFunctions[i] != null) {
+                if(!(Boolean) filterFunctions[i].invoke(elContext, new Object[]{columnValue, filterValues[i], locale})) {
+                    return NO_MATCH;
+                }
+            }
+            else if(!constraints[i].applies(columnValue)) {
+                return NO_MATCH;
+            }
+        }
+
+        if(hasGlobalFilter && !globalMatch) {
+            return NO_MATCH;
+        }
+
+        return MATCH;
+    }
+
+    private Object getColumnValue(ELContext elContext, int index, Object rowData, Map<String,Object> requestMap, String var) {
+        PropertyPathAccessor accessor = accessors[index];
+
+        if(accessor != null) {
+            Object value = accessor.getValue(rowData);
+            if(value != PropertyPathAccessor.UNRESOLVED || elContext == null) {
+                return value;
+            }
+
+            //e.g. property provided by a custom ELResolver
+            if(var != null) {
+                requestMap.put(var, rowData);
+            }
+        }
+        else if(elContext == null) {
+            return PropertyPathAccessor.UNRESOLVED;
+        }
+
+        UIColumn column = columns[index];
+        if(column instanceof DynamicColumn) {
+            ((DynamicColumn) column).applyStatelessModel();
+        }
+
+        return filterByVEs[index].getValue(elContext);
+    }
+
+    private static PreparedFilterConstraint prepare(FilterConstraint constraint, Object filterValue, Locale locale) {
+        if(constraint instanceof StringFilterConstraint) {
+            return ((StringFilterConstraint) constraint).prepare(filterValue, locale);
+        }
+
+        return new BoundFilterConstraint(constraint, filterValue, locale);
+    }
+
+    private static class BoundFilterConstraint implements PreparedFilterConstraint {
+
+        private final FilterConstraint constraint;
+        private final Object filterValue;
+        private final Locale locale;
+
+        BoundFilterConstraint(FilterConstraint constraint, Object filterValue, Locale locale) {
+            this.constraint = constraint;
+            this.filterValue = filterValue;
+            this.locale = locale;
+        }
+
+        public boolean applies(Object value) {
+            return constraint.applies(value, filterValue, locale);
+        }
+    }
+}
@@ -34,6 +34,17 @@ public class ScrollFeature implements DataTableFeature {
         String clientId = table.getClientId(context);
         table.setScrollOffset(scrollOffset);
 
+        if (table.isVirtualScrolling()) {
+            if (table.isSelectionEnabled()) {
+                table.findSelectedRowKeys();
+            }
+            
+            //replaces the whole window, spacers included
+            renderer.encodeVirtualRows(context, table, 0, table.getColumns().size());
+            table.setRowIndex(-1);
+            return;
+        }
+        
         if (table.isLazy()) {
             table.loadLazyScrollData(scrollOffset, scrollRows);
         }
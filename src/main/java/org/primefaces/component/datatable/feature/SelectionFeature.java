@@ -18,8 +18,11 @@ package org.primefaces.component.datatable.feature;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.el.ValueExpression;
 import javax.faces.FacesException;
@@ -70,6 +73,9 @@ public class SelectionFeature implements DataTableFeature {
         if(clazz != null && !isArray && !List.class.isAssignableFrom(clazz)) {
             throw new FacesException("Multiple selection reference must be an Array or a List for datatable " + table.getClientId());
         }
+        
+        //an "@all" selection is created after the filters are decoded
+        table.updateAllRowsSelection(null);
                 
 		if(ComponentUtils.isValueBlank(selection)) {
             if(isArray) {
@@ -81,15 +87,36 @@ public class SelectionFeature implements DataTableFeature {
 		}
         else {
             List selectionList = new ArrayList();
+            String[] rowKeys = selection.split(",");
             
-            if(selection.equals(ALL_SELECTOR)) {
-                for(int i = 0; i < table.getRowCount(); i++) {
-                    table.setRowIndex(i);
-                    selectionList.add(table.getRowData());
+            if(rowKeys[0].equals(ALL_SELECTOR)) {
+                //all rows except the keys following @all
+                Set<String> exclusions = new HashSet<String>(Arrays.asList(rowKeys).subList(1, rowKeys.length));
+                boolean hasRowKeyVe = (table.getValueExpression("rowKey") != null);
+                
+                if(table.isAllRowsSelectionEnabled()) {
+                    table.setAllRowsExclusions(exclusions);
+                }
+                else {
+                    for(int i = 0; i < table.getRowCount(); i++) {
+                        table.setRowIndex(i);
+                        Object rowData = table.getRowData();
+
+                        if(!exclusions.isEmpty()) {
+                            Object rowKey = hasRowKeyVe ? table.getRowKey() : table.getRowKeyFromModel(rowData);
+                            if(exclusions.contains(String.valueOf(rowKey))) {
+                                continue;
+                            }
+                        }
+
+                        selectionList.add(rowData);
+                    }
+
+                    table.setRowIndex(-1);
+                    table.setSelectAllExclusions(exclusions);
                 }
             }
             else {
-                String[] rowKeys = selection.split(",");
                 for(int i = 0; i < rowKeys.length; i++) {
                     Object rowData = table.getRowData(rowKeys[i]);
 
@@ -16,9 +16,14 @@
 package org.primefaces.component.datatable.feature;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ExecutorService;
 import java.util.Locale;
 import java.util.Map;
 import javax.el.MethodExpression;
@@ -30,15 +35,17 @@ import org.primefaces.component.api.DynamicColumn;
 import org.primefaces.component.api.UIColumn;
 import org.primefaces.component.datatable.DataTable;
 import org.primefaces.component.datatable.DataTableRenderer;
+import org.primefaces.context.ApplicationContext;
 import org.primefaces.context.RequestContext;
 import org.primefaces.event.data.PostSortEvent;
 import org.primefaces.model.BeanPropertyComparator;
-import org.primefaces.model.ChainedBeanPropertyComparator;
 import org.primefaces.model.DynamicChainedPropertyComparator;
 import org.primefaces.model.SortMeta;
 import org.primefaces.model.SortOrder;
 
 public class SortFeature implements DataTableFeature {
+    
+    private final static int MIN_PARALLEL_CHUNK_SIZE = 1000;
 
     private boolean isSortRequest(FacesContext context, DataTable table) {
         return context.getExternalContext().getRequestParameterMap().containsKey(table.getClientId(context) + "_sorting");
@@ -46,6 +53,7 @@ public class SortFeature implements DataTableFeature {
     
     public void decode(FacesContext context, DataTable table) {
         table.setRowIndex(-1);
+        table.setScrollOffset(0);
         String clientId = table.getClientId(context);
 		Map<String,String> params = context.getExternalContext().getRequestParameterMap();
 		String sortKey = params.get(clientId + "_sortKey");
@@ -58,24 +66,7 @@ public class SortFeature implements DataTableFeature {
             
             for(int i = 0; i < sortKeys.length; i++) {
                 UIColumn sortColumn = table.findColumn(sortKeys[i]);
-                ValueExpression columnSortByVE = sortColumn.getValueExpression("sortBy");
-                String sortField;
-            
-                if(sortColumn.isDynamic()) {
-                    ((DynamicColumn) sortColumn).applyStatelessModel();
-                    String field = sortColumn.getField();
-                    if(field == null)
-                        sortField = table.resolveDynamicField(columnSortByVE);
-                    else
-                        sortField = field;
-                }
-                else {
-                    String field = sortColumn.getField();
-                    if(field == null)
-                        sortField = table.resolveStaticField(columnSortByVE);
-                    else
-                        sortField = field;
-                }
+                String sortField = table.getColumnModel().getSortField(sortColumn);
                 
                 multiSortMeta.add(new SortMeta(sortColumn, sortField, SortOrder.valueOf(convertSortOrderParam(sortOrders[i])), sortColumn.getSortFunction()));
             }
@@ -128,7 +119,10 @@ public class SortFeature implements DataTableFeature {
         if(value == null)
             return;
         
-        ValueExpression sortByVE = table.getValueExpression("sortBy");        
+        ValueExpression sortByVE = table.getValueExpression("sortBy");
+        if(sortByVE == null)
+            return;     //literal sortBy, there is no expression to read the sort values from
+        
         SortOrder sortOrder = SortOrder.valueOf(table.getSortOrder().toUpperCase(Locale.ENGLISH));
         MethodExpression sortFunction = table.getSortFunction();
         List list = null;
@@ -145,7 +139,12 @@ public class SortFeature implements DataTableFeature {
         else
             throw new FacesException("Data type should be java.util.List or javax.faces.model.ListDataModel instance to be sortable.");
         
-        Collections.sort(list, new BeanPropertyComparator(sortByVE, table.getVar(), sortOrder, sortFunction, table.isCaseSensitiveSort(), table.resolveDataLocale(), table.getNullSortOrder()));
+        List<BeanPropertyComparator> comparators = new ArrayList<BeanPropertyComparator>(1);
+        comparators.add(new BeanPropertyComparator(sortByVE, table.getVar(), sortOrder, sortFunction, table.isCaseSensitiveSort(), table.resolveDataLocale(), table.getNullSortOrder()));
+        List<String> sortKeys = new ArrayList<String>(1);
+        sortKeys.add(getSortKey(sortColumn, sortByVE));
+        
+        sort(context, table, list, comparators, sortKeys);
     
         context.getApplication().publishEvent(context, PostSortEvent.class, table);
     }
@@ -169,11 +168,12 @@ public class SortFeature implements DataTableFeature {
         else
             throw new FacesException("Data type should be java.util.List or javax.faces.model.ListDataModel instance to be sortable.");
 
-        ChainedBeanPropertyComparator chainedComparator = new ChainedBeanPropertyComparator();
+        List<BeanPropertyComparator> comparators = new ArrayList<BeanPropertyComparator>(sortMeta.size());
+        List<String> sortKeys = new ArrayList<String>(sortMeta.size());
         for(SortMeta meta : sortMeta) { 
             BeanPropertyComparator comparator;
             UIColumn sortColumn = meta.getColumn();
-            ValueExpression sortByVE = sortColumn.getValueExpression("sortBy");
+            ValueExpression sortByVE = table.getColumnModel().getColumnMeta(sortColumn).getSortBy();
             
             if(sortColumn.isDynamic()) {
                 ((DynamicColumn) sortColumn).applyStatelessModel();                
@@ -183,14 +183,250 @@ public class SortFeature implements DataTableFeature {
                 comparator = new BeanPropertyComparator(sortByVE, table.getVar(), meta.getSortOrder(), sortColumn.getSortFunction(), caseSensitiveSort, locale, nullSortOrder);
             }
                  
-            chainedComparator.addComparator(comparator);
+            comparators.add(comparator);
+            sortKeys.add(getSortKey(sortColumn, sortByVE));
         }
         
-        Collections.sort(list, chainedComparator);
+        sort(context, table, list, comparators, sortKeys);
         
         context.getApplication().publishEvent(context, PostSortEvent.class, table);
     }
 
+    /**
+     * Sorts the list with the given comparators, sort keys are extracted once per row and column
+     * instead of evaluating sortBy on every comparison.
+     * 
+     * @param sortKeys identifiers of the sorted columns, used as keys of the sort index cache
+     */
+    protected void sort(FacesContext context, DataTable table, List list, List<BeanPropertyComparator> comparators, List<String> sortKeys) {
+        SortIndexCache cache = null;
+        String sortState = null;
+        Object version = null;
+        
+        if(table.isSortCache()) {
+            cache = SortIndexCache.getInstance(context, table);
+            sortState = getSortState(table, comparators, sortKeys, false);
+            version = table.getSortCacheVersion();
+            
+            if(cache.restore(list, version, sortState, getSortState(table, comparators, sortKeys, true))) {
+                return;
+            }
+        }
+        
+        int size = list.size();
+        BeanPropertyComparator[] chain = comparators.toArray(new BeanPropertyComparator[comparators.size()]);
+        SortEntry[] entries = new SortEntry[size];
+        
+        int i = 0;
+        for(Iterator it = list.iterator(); it.hasNext(); i++) {
+            entries[i] = new SortEntry(it.next(), chain.length);
+        }
+        
+        for(int j = 0; j < chain.length; j++) {
+            for(SortEntry entry : entries) {
+                entry.keys[j] = chain[j].getSortKey(context, entry.row);
+            }
+        }
+        
+        boolean parallel = table.isParallelSort() && size >= table.getParallelSortThreshold() && !hasSortFunction(chain);
+        Comparator<SortEntry> comparator = new SortEntryComparator(parallel ? null : context, chain);
+        
+        if(parallel)
+            parallelSort(entries, comparator);
+        else
+            Arrays.sort(entries, comparator);
+        
+        ListIterator it = list.listIterator();
+        for(SortEntry entry : entries) {
+            it.next();
+            it.set(entry.row);
+        }
+        
+        if(cache != null) {
+            cache.store(list, version, sortState, getRunStarts(entries, comparator));
+        }
+    }
+    
+    /**
+     * @return indexes of the sorted entries starting a run of entries with equal sort keys
+     */
+    private int[] getRunStarts(SortEntry[] entries, Comparator<SortEntry> comparator) {
+        if(entries.length == 0) {
+            return new int[0];
+        }
+        
+        int[] runStarts = new int[entries.length];
+        int runs = 1;
+        for(int i = 1; i < entries.length; i++) {
+            if(comparator.compare(entries[i - 1], entries[i]) != 0) {
+                runStarts[runs++] = i;
+            }
+        }
+        
+        return Arrays.copyOf(runStarts, runs);
+    }
+    
+    private String getSortKey(UIColumn sortColumn, ValueExpression sortByVE) {
+        String columnKey = (sortColumn == null) ? null : sortColumn.getColumnKey();
+        
+        return columnKey + ":" + sortByVE.getExpressionString();
+    }
+    
+    private String getSortState(DataTable table, List<BeanPropertyComparator> comparators, List<String> sortKeys, boolean reverse) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(table.isCaseSensitiveSort()).append(";").append(table.resolveDataLocale()).append(";").append(table.getNullSortOrder());
+        
+        for(int i = 0; i < sortKeys.size(); i++) {
+            boolean ascending = comparators.get(i).isAscending() != reverse;
+            builder.append(";").append(sortKeys.get(i)).append(ascending ? ":asc" : ":desc");
+        }
+        
+        return builder.toString();
+    }
+    
+    /**
+     * Sorts chunks of the entries on the application thread pool and merges them pairwise,
+     * the comparator must not require the FacesContext.
+     */
+    private void parallelSort(SortEntry[] entries, Comparator<SortEntry> comparator) {
+        ApplicationContext applicationContext = RequestContext.getCurrentInstance().getApplicationContext();
+        int chunks = Math.max(1, Math.min(applicationContext.getConfig().getThreadPoolSize(), entries.length / MIN_PARALLEL_CHUNK_SIZE));
+        
+        parallelSort(applicationContext.getExecutorService(), chunks, entries, comparator);
+    }
+    
+    /**
+     * Stable sort of the entries, the given number of chunks is sorted on the executor and merged pairwise.
+     */
+    static <T> void parallelSort(ExecutorService executor, int chunks, T[] entries, Comparator<? super T> comparator) {
+        int size = entries.length;
+        int chunkSize = Math.max(1, (size + chunks - 1) / chunks);
+        List<Runnable> tasks = new ArrayList<Runnable>(chunks);
+        
+        for(int from = 0; from < size; from += chunkSize) {
+            tasks.add(new SortTask<T>(entries, comparator, from, Math.min(size, from + chunkSize)));
+        }
+        
+        ParallelTasks.run(executor, tasks);
+        
+        T[] source = entries;
+        T[] target = (T[]) Array.newInstance(entries.getClass().getComponentType(), size);
+        for(int width = chunkSize; width < size; width *= 2) {
+            tasks.clear();
+            
+            for(int from = 0; from < size; from += 2 * width) {
+                tasks.add(new MergeTask<T>(source, target, comparator, from, Math.min(size, from + width), Math.min(size, from + 2 * width)));
+            }
+            
+            ParallelTasks.run(executor, tasks);
+            
+            T[] merged = target;
+            target = source;
+            source = merged;
+        }
+        
+        if(source != entries) {
+            System.arraycopy(source, 0, entries, 0, size);
+        }
+    }
+    
+    private boolean hasSortFunction(BeanPropertyComparator[] chain) {
+        for(BeanPropertyComparator comparator : chain) {
+            if(comparator.hasSortFunction()) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    private static class SortTask<T> implements Runnable {
+        
+        private final T[] entries;
+        private final Comparator<? super T> comparator;
+        private final int from;
+        private final int to;
+
+        public SortTask(T[] entries, Comparator<? super T> comparator, int from, int to) {
+            this.entries = entries;
+            this.comparator = comparator;
+            this.from = from;
+            this.to = to;
+        }
+        
+        public void run() {
+            Arrays.sort(entries, from, to, comparator);
+        }
+    }
+    
+    /**
+     * Merges the sorted ranges [from, middle) and [middle, to) of source into target, equal entries keep their order.
+     */
+    private static class MergeTask<T> implements Runnable {
+        
+        private final T[] source;
+        private final T[] target;
+        private final Comparator<? super T> comparator;
+        private final int from;
+        private final int middle;
+        private final int to;
+
+        public MergeTask(T[] source, T[] target, Comparator<? super T> comparator, int from, int middle, int to) {
+            this.source = source;
+            this.target = target;
+            this.comparator = comparator;
+            this.from = from;
+            this.middle = middle;
+            this.to = to;
+        }
+        
+        public void run() {
+            int left = from;
+            int right = middle;
+            
+            for(int i = from; i < to; i++) {
+                if(right >= to || (left < middle && comparator.compare(source[left], source[right]) <= 0))
+                    target[i] = source[left++];
+                else
+                    target[i] = source[right++];
+            }
+        }
+    }
+    
+    private static class SortEntry {
+        
+        private final Object row;
+        private final Object[] keys;
+
+        public SortEntry(Object row, int keyCount) {
+            this.row = row;
+            this.keys = new Object[keyCount];
+        }
+    }
+    
+    private static class SortEntryComparator implements Comparator<SortEntry> {
+        
+        private final FacesContext context;
+        private final BeanPropertyComparator[] chain;
+
+        public SortEntryComparator(FacesContext context, BeanPropertyComparator[] chain) {
+            this.context = context;
+            this.chain = chain;
+        }
+        
+        public int compare(SortEntry entry1, SortEntry entry2) {
+            for(int i = 0; i < chain.length; i++) {
+                int result = chain[i].compareKeys(context, entry1.keys[i], entry2.keys[i]);
+                
+                if(result != 0) {
+                    return result;
+                }
+            }
+            
+            return 0;
+        }
+    }
+
     public boolean shouldDecode(FacesContext context, DataTable table) {
         return isSortRequest(context, table);
     }
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.datatable.feature;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import javax.faces.context.FacesContext;
+import org.primefaces.component.datatable.DataTable;
+
+/**
+ * Sorted row orders of a table's data per sort state, kept in the view scope so switching back to a previous
+ * sort state only reorders the rows instead of sorting them again.
+ * Reversing the order is a lookup of the opposite sort state: its runs of rows with equal sort keys are served
+ * in reverse order while the rows inside a run keep their order, like a stable sort in the opposite direction.
+ * Cached orders are dropped when the data is another list instance, changes its size or its version.
+ */
+class SortIndexCache implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient List data;
+    private transient Object version;
+    private transient Object[] rows;
+    private transient Map<Object,Integer> positions;
+    private transient Map<String,SortedOrder> orders;
+
+    static SortIndexCache getInstance(FacesContext context, DataTable table) {
+        Map<String,Object> viewMap = context.getViewRoot().getViewMap();
+        String key = table.getClientId(context) + "_sortIndexCache";
+        SortIndexCache cache = (SortIndexCache) viewMap.get(key);
+
+        if(cache == null) {
+            cache = new SortIndexCache();
+            viewMap.put(key, cache);
+        }
+
+        return cache;
+    }
+
+    /**
+     * Reorders the list by the cached order of the sort state or the reversed order of the opposite sort state,
+     * the list has to hold the same rows as when the order was stored.
+     *
+     * @return true if the list was reordered
+     */
+    synchronized boolean restore(List list, Object version, String sortState, String reverseSortState) {
+        validate(list, version);
+
+        SortedOrder order = orders.get(sortState);
+        if(order == null) {
+            SortedOrder reverseOrder = orders.get(reverseSortState);
+            if(reverseOrder == null) {
+                return false;
+            }
+
+            order = reverseOrder.reverse();
+        }
+
+        //rows replaced in place must not be overwritten by the snapshot
+        if(!containsSnapshotRows(list)) {
+            reset(list, version);
+            return false;
+        }
+
+        orders.put(sortState, order);
+
+        int[] permutation = order.permutation;
+        ListIterator it = list.listIterator();
+        for(int i = 0; i < permutation.length; i++) {
+            it.next();
+            it.set(rows[permutation[i]]);
+        }
+
+        return true;
+    }
+
+    /**
+     * Remembers the current order of the list as the order of the sort state.
+     *
+     * @param runStarts ascending indexes of the rows starting a run of rows with equal sort keys, the first run starts at 0
+     */
+    synchronized void store(List list, Object version, String sortState, int[] runStarts) {
+        validate(list, version);
+
+        if(!indexPositions()) {
+            return;
+        }
+
+        int[] permutation = new int[rows.length];
+        int i = 0;
+        for(Object row : list) {
+            Integer position = positions.get(row);
+            if(position == null) {
+                //list was modified without changing its size
+                reset(list, version);
+                return;
+            }
+
+            permutation[i++] = position;
+        }
+
+        orders.put(sortState, new SortedOrder(permutation, runStarts));
+    }
+
+    /**
+     * @return false if the snapshot contains the same row more than once, such data is not cached
+     */
+    private boolean indexPositions() {
+        if(positions == null) {
+            positions = new IdentityHashMap<Object, Integer>(rows.length);
+            for(int i = 0; i < rows.length; i++) {
+                positions.put(rows[i], i);
+            }
+        }
+
+        return positions.size() == rows.length;
+    }
+
+    private boolean containsSnapshotRows(List list) {
+        if(!indexPositions()) {
+            return false;
+        }
+
+        boolean[] found = new boolean[rows.length];
+        for(Object row : list) {
+            Integer position = positions.get(row);
+            if(position == null || found[position]) {
+                return false;
+            }
+
+            found[position] = true;
+        }
+
+        return true;
+    }
+
+    private void validate(List list, Object version) {
+        boolean sameVersion = (version == null) ? (this.version == null) : version.equals(this.version);
+
+        if(list != data || rows == null || rows.length != list.size() || !sameVersion) {
+            reset(list, version);
+        }
+    }
+
+    private void reset(List list, Object version) {
+        this.data = list;
+        this.version = version;
+        this.rows = list.toArray();
+        this.positions = null;
+        this.orders = new HashMap<String, SortedOrder>();
+    }
+
+    private static class SortedOrder {
+
+        private final int[] permutation;
+        private final int[] runStarts;
+
+        SortedOrder(int[] permutation, int[] runStarts) {
+            this.permutation = permutation;
+            this.runStarts = runStarts;
+        }
+
+        /**
+         * @return the runs in reverse order, rows of a run in the same order
+         */
+        SortedOrder reverse() {
+            int size = permutation.length;
+            int runs = runStarts.length;
+            int[] reversedPermutation = new int[size];
+            int[] reversedRunStarts = new int[runs];
+
+            int target = 0;
+            for(int run = runs - 1; run >= 0; run--) {
+                int start = runStarts[run];
+                int end = (run == runs - 1) ? size : runStarts[run + 1];
+
+                reversedRunStarts[runs - 1 - run] = target;
+                System.arraycopy(permutation, start, reversedPermutation, target, end - start);
+                target += end - start;
+            }
+
+            return new SortedOrder(reversedPermutation, reversedRunStarts);
+        }
+    }
+}
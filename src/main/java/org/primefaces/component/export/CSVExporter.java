@@ -15,14 +15,17 @@
  */
 package org.primefaces.component.export;
 
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.Writer;
 import java.util.*;
 
 import javax.el.MethodExpression;
 import javax.faces.FacesException;
 import javax.faces.component.UIComponent;
+import javax.faces.component.visit.VisitCallback;
+import javax.faces.component.visit.VisitContext;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import org.primefaces.component.api.DynamicColumn;
@@ -33,12 +36,96 @@ import org.primefaces.util.Constants;
 
 public class CSVExporter extends Exporter {
 
+    /**
+     * Number of rows after which the written rows are flushed to the client.
+     */
+    protected static final int FLUSH_INTERVAL = 1000;
+
+    private int rowsSinceFlush;
+
     @Override
 	public void export(FacesContext context, DataTable table, String filename, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
 		ExternalContext externalContext = context.getExternalContext();
         configureResponse(externalContext, filename, encodingType);
-        Writer writer = externalContext.getResponseOutputWriter();
+        Writer writer = new BufferedWriter(externalContext.getResponseOutputWriter());
     	
+        exportTable(context, table, writer, pageOnly, selectionOnly);
+            	        
+        writer.flush();
+        writer.close();
+        
+        externalContext.responseFlushBuffer();
+	}
+    
+    @Override
+    public void export(FacesContext context, List<String> clientIds, String outputFileName, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
+        ExternalContext externalContext = context.getExternalContext();
+        configureResponse(externalContext, outputFileName, encodingType);
+        Writer writer = new BufferedWriter(externalContext.getResponseOutputWriter());
+        
+        VisitContext visitContext = VisitContext.createVisitContext(context, clientIds, null);
+        VisitCallback visitCallback = new CSVExportVisitCallback(this, writer, pageOnly, selectionOnly);
+        context.getViewRoot().visitTree(visitContext, visitCallback);
+        
+        writer.flush();
+        writer.close();
+        
+        externalContext.responseFlushBuffer();
+    }
+    
+    /**
+     * Writes the tables one after another, separated by an empty line.
+     */
+    @Override
+    public void export(FacesContext context, String outputFileName, List<DataTable> tables, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
+        ExternalContext externalContext = context.getExternalContext();
+        configureResponse(externalContext, outputFileName, encodingType);
+        Writer writer = new BufferedWriter(externalContext.getResponseOutputWriter());
+        
+        List<File> tableRows = null;
+        if(isParallel()) {
+            tableRows = formatInParallel(context, tables, pageOnly, selectionOnly, new TableFileFormatter() {
+                
+                protected void format(int index, TableSnapshot snapshot, Writer writer) throws Exception {
+                    formatRows(snapshot, writer);
+                }
+            });
+        }
+        
+        try {
+            for(int i = 0; i < tables.size(); i++) {
+                DataTable table = tables.get(i);
+                File rows = (tableRows == null) ? null : tableRows.get(i);
+
+                if(i > 0) {
+                    writer.write('\n');
+                }
+
+                if(rows == null) {
+                    exportTable(context, table, writer, pageOnly, selectionOnly);
+                }
+                else {
+                    addColumnFacets(writer, table, ColumnType.HEADER);
+                    writeFormattedTable(rows, writer);
+
+                    if (table.hasFooterColumn()) {
+                        addColumnFacets(writer, table, ColumnType.FOOTER);
+                    }
+                }
+
+                writer.flush();
+            }
+        }
+        finally {
+            deleteFormattedTables(tableRows);
+        }
+        
+        writer.close();
+        
+        externalContext.responseFlushBuffer();
+    }
+    
+    public void exportTable(FacesContext context, DataTable table, Writer writer, boolean pageOnly, boolean selectionOnly) throws IOException {
     	addColumnFacets(writer, table, ColumnType.HEADER);
     	
         if (pageOnly) {
@@ -54,21 +141,28 @@ public class CSVExporter extends Exporter {
         if (table.hasFooterColumn()) {
             addColumnFacets(writer, table, ColumnType.FOOTER);
         }
-            	        
-        writer.flush();
-        writer.close();
         
-        externalContext.responseFlushBuffer();
-	}
-    
-    @Override
-    public void export(FacesContext facesContext, List<String> clientIds, String outputFileName, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
-        throw new UnsupportedOperationException("Not supported yet.");
+        table.setRowIndex(-1);
     }
     
-    @Override
-    public void export(FacesContext facesContext, String outputFileName, List<DataTable> tables, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
-        throw new UnsupportedOperationException("Not supported yet.");
+    /**
+     * Writes the rows of a table read outside of the request.
+     */
+    protected void formatRows(TableSnapshot snapshot, final Writer writer) throws Exception {
+        snapshot.forEachRow(new TableSnapshot.RowCallback() {
+            
+            public void row(Object[] values) throws IOException {
+                for(int i = 0; i < values.length; i++) {
+                    if(i > 0) {
+                        writer.write(',');
+                    }
+                    
+                    addColumnValue(writer, TableSnapshot.format(values[i]));
+                }
+                
+                writer.write('\n');
+            }
+        });
     }
     
     protected void addColumnFacets(Writer writer, DataTable table, ColumnType columnType) throws IOException {
@@ -117,7 +211,7 @@ public class CSVExporter extends Exporter {
     
     @Override
     protected void exportCells(DataTable table, Object document) {
-        PrintWriter writer = (PrintWriter) document;
+        Writer writer = (Writer) document;
         boolean firstCellWritten = false;
         
         for (UIColumn col : table.getColumns()) {
@@ -126,11 +220,11 @@ public class CSVExporter extends Exporter {
             }
             
             if (col.isRendered() && col.isExportable()) {
-                if (firstCellWritten) {
-                    writer.write(",");
-                }
-                
                 try {
+                    if (firstCellWritten) {
+                        writer.write(',');
+                    }
+
                     addColumnValue(writer, col.getChildren(), col);
                 } catch (IOException ex) {
                     throw new FacesException(ex);
@@ -167,41 +261,65 @@ public class CSVExporter extends Exporter {
 	}
     
     protected void addColumnValue(Writer writer, String value) throws IOException {        
-         value = (value == null) ? "" : value.replaceAll("\"", "\"\"");
-        
-        writer.write("\"" + value + "\"");
+        writer.write('"');
+        writeEscaped(writer, value);
+        writer.write('"');
 	}
+    
+    /**
+     * Writes the value with double quotes escaped as two double quotes.
+     */
+    protected void writeEscaped(Writer writer, String value) throws IOException {
+        if(value == null) {
+            return;
+        }
+        
+        int length = value.length();
+        int start = 0;
+        for(int i = 0; i < length; i++) {
+            if(value.charAt(i) == '"') {
+                writer.write(value, start, i + 1 - start);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        
+        writer.write(value, start, length - start);
+    }
 	
 	protected void addColumnValue(Writer writer, List<UIComponent> components, UIColumn column) throws IOException {
         FacesContext context = FacesContext.getCurrentInstance();
         
-        writer.write("\"");
+        writer.write('"');
         
         if(column.getExportFunction() != null) {
-            String value = exportColumnByFunction(context, column);
-            //escape double quotes
-            value = value == null ? "" : value.replaceAll("\"", "\"\"");
-
-            writer.write(value);
+            writeEscaped(writer, exportColumnByFunction(context, column));
         }
         else {
             for (UIComponent component : components) {
                 if (component.isRendered()) {
-                    String value = exportValue(context, component);
-
-                    //escape double quotes
-                    value = value == null ? "" : value.replaceAll("\"", "\"\"");
-
-                    writer.write(value);
+                    writeEscaped(writer, exportValue(context, component));
                 }
             }
         }
 
-		writer.write("\"");
+		writer.write('"');
 	}
 
     @Override
     protected void postRowExport(DataTable table, Object document) {
-        ((PrintWriter) document).write("\n");
+        Writer writer = (Writer) document;
+        
+        try {
+            writer.write('\n');
+            
+            //stream rows to the client instead of buffering the whole document
+            if (++rowsSinceFlush >= FLUSH_INTERVAL) {
+                writer.flush();
+                rowsSinceFlush = 0;
+            }
+        } catch (IOException ex) {
+            throw new FacesException(ex);
+        }
     }
 }
@@ -30,6 +30,7 @@ import javax.faces.event.ActionEvent;
 import javax.faces.event.ActionListener;
 
 import org.primefaces.component.datatable.DataTable;
+import org.primefaces.context.RequestContext;
 import org.primefaces.expression.SearchExpressionFacade;
 
 public class DataExporter implements ActionListener, StateHolder {
@@ -51,6 +52,14 @@ public class DataExporter implements ActionListener, StateHolder {
 	private MethodExpression postProcessor;
     
     private ValueExpression repeat;
+    
+    private ValueExpression batchSize;
+    
+    private ValueExpression typedCells;
+    
+    private ValueExpression async;
+    
+    private ValueExpression parallel;
 	
 	public DataExporter() {}
 
@@ -93,8 +102,38 @@ public class DataExporter implements ActionListener, StateHolder {
 			isSelectionOnly = selectionOnly.isLiteralText() ? Boolean.valueOf(selectionOnly.getValue(context.getELContext()).toString()) : (Boolean) selectionOnly.getValue(context.getELContext());
 		}
 		
+        int exportBatchSize = 0;
+		if(batchSize != null) {
+			exportBatchSize = batchSize.isLiteralText() ? Integer.parseInt(batchSize.getValue(context.getELContext()).toString()) : ((Number) batchSize.getValue(context.getELContext())).intValue();
+		}
+		
+        boolean isTypedCells = false;
+		if(typedCells != null) {
+			isTypedCells = typedCells.isLiteralText() ? Boolean.valueOf(typedCells.getValue(context.getELContext()).toString()) : (Boolean) typedCells.getValue(context.getELContext());
+		}
+		
+        boolean isAsync = false;
+		if(async != null) {
+			isAsync = async.isLiteralText() ? Boolean.valueOf(async.getValue(context.getELContext()).toString()) : (Boolean) async.getValue(context.getELContext());
+		}
+		
+        boolean isParallel = false;
+		if(parallel != null) {
+			isParallel = parallel.isLiteralText() ? Boolean.valueOf(parallel.getValue(context.getELContext()).toString()) : (Boolean) parallel.getValue(context.getELContext());
+		}
+		
 		try {
 			Exporter exporter = ExporterFactory.getExporterForType(exportAs);
+            exporter.setBatchSize(exportBatchSize);
+            exporter.setParallel(isParallel);
+            if(exporter instanceof ExcelExporter) {
+                ((ExcelExporter) exporter).setTypedCells(isTypedCells);
+            }
+            
+            if(isAsync) {
+                exportAsync(context, event.getComponent(), exporter, tables, outputFileName, isPageOnly, isSelectionOnly, encodingType, repeating);
+                return;
+            }
             
             if(!repeating) {
                 List components = SearchExpressionFacade.resolveComponents(context, event.getComponent(), tables, SearchExpressionFacade.Options.VISIT_UNRENDERED);
@@ -124,6 +163,23 @@ public class DataExporter implements ActionListener, StateHolder {
 		}
 	}
 
+    /**
+     * Starts a background export, the response is a regular ajax response with the url of the job as exportJob callback parameter.
+     */
+    protected void exportAsync(FacesContext context, UIComponent source, Exporter exporter, String tables, String outputFileName, boolean pageOnly, boolean selectionOnly, String encodingType, boolean repeating) {
+        if(preProcessor != null || postProcessor != null) {
+            throw new FacesException("PreProcessor and postProcessor are not supported by asynchronous exports.");
+        }
+        
+        List components = repeating ? null : SearchExpressionFacade.resolveComponents(context, source, tables, SearchExpressionFacade.Options.VISIT_UNRENDERED);
+        if(components == null || components.size() != 1 || !(components.get(0) instanceof DataTable)) {
+            throw new FacesException("Asynchronous export must target a single PrimeFaces DataTable.");
+        }
+        
+        ExportJob job = ExportJob.create(context, (DataTable) components.get(0), exporter, outputFileName, pageOnly, selectionOnly, encodingType);
+        RequestContext.getCurrentInstance().addCallbackParam("exportJob", job.submit(context));
+    }
+
 	public boolean isTransient() {
 		return false;
 	}
@@ -135,6 +191,22 @@ public class DataExporter implements ActionListener, StateHolder {
     public void setRepeat(ValueExpression ve) {
         this.repeat = ve;
     }
+    
+    public void setBatchSize(ValueExpression ve) {
+        this.batchSize = ve;
+    }
+    
+    public void setTypedCells(ValueExpression ve) {
+        this.typedCells = ve;
+    }
+    
+    public void setAsync(ValueExpression ve) {
+        this.async = ve;
+    }
+    
+    public void setParallel(ValueExpression ve) {
+        this.parallel = ve;
+    }
 	
 	 public void restoreState(FacesContext context, Object state) {
 		Object values[] = (Object[]) state;
@@ -148,10 +220,14 @@ public class DataExporter implements ActionListener, StateHolder {
 		postProcessor = (MethodExpression) values[6];
 		encoding = (ValueExpression) values[7];
         repeat = (ValueExpression) values[8];
+        batchSize = (ValueExpression) values[9];
+        typedCells = (ValueExpression) values[10];
+        async = (ValueExpression) values[11];
+        parallel = (ValueExpression) values[12];
 	}
 
 	public Object saveState(FacesContext context) {
-		Object values[] = new Object[9];
+		Object values[] = new Object[13];
 
 		values[0] = target;
 		values[1] = type;
@@ -162,6 +238,10 @@ public class DataExporter implements ActionListener, StateHolder {
 		values[6] = postProcessor;
 		values[7] = encoding;
         values[8] = repeat;
+        values[9] = batchSize;
+        values[10] = typedCells;
+        values[11] = async;
+        values[12] = parallel;
 		
 		return ((Object[]) values);
 	}
@@ -41,6 +41,10 @@ public class DataExporterTagHandler extends TagHandler {
 	private final TagAttribute postProcessor;
 	private final TagAttribute encoding;
     private final TagAttribute repeat;
+    private final TagAttribute batchSize;
+    private final TagAttribute typedCells;
+    private final TagAttribute async;
+    private final TagAttribute parallel;
 
 	public DataExporterTagHandler(TagConfig tagConfig) {
 		super(tagConfig);
@@ -53,6 +57,10 @@ public class DataExporterTagHandler extends TagHandler {
 		this.preProcessor = getAttribute("preProcessor");
 		this.postProcessor = getAttribute("postProcessor");
         this.repeat = getAttribute("repeat");
+        this.batchSize = getAttribute("batchSize");
+        this.typedCells = getAttribute("typedCells");
+        this.async = getAttribute("async");
+        this.parallel = getAttribute("parallel");
 	}
 
 	public void apply(FaceletContext faceletContext, UIComponent parent) throws IOException, FacesException, FaceletException, ELException {
@@ -66,6 +74,10 @@ public class DataExporterTagHandler extends TagHandler {
 			MethodExpression preProcessorME = null;
 			MethodExpression postProcessorME = null;
             ValueExpression repeatVE = null;
+            ValueExpression batchSizeVE = null;
+            ValueExpression typedCellsVE = null;
+            ValueExpression asyncVE = null;
+            ValueExpression parallelVE = null;
 			
 			if(encoding != null) {
 				encodingVE = encoding.getValueExpression(faceletContext, Object.class);
@@ -85,10 +97,26 @@ public class DataExporterTagHandler extends TagHandler {
             if(repeat != null) {
 				repeatVE = repeat.getValueExpression(faceletContext, Object.class);
 			}
+            if(batchSize != null) {
+				batchSizeVE = batchSize.getValueExpression(faceletContext, Object.class);
+			}
+            if(typedCells != null) {
+				typedCellsVE = typedCells.getValueExpression(faceletContext, Object.class);
+			}
+            if(async != null) {
+				asyncVE = async.getValueExpression(faceletContext, Object.class);
+			}
+            if(parallel != null) {
+				parallelVE = parallel.getValueExpression(faceletContext, Object.class);
+			}
 			
 			ActionSource actionSource = (ActionSource) parent;
             DataExporter dataExporter = new DataExporter(targetVE, typeVE, fileNameVE, pageOnlyVE, selectionOnlyVE, encodingVE, preProcessorME, postProcessorME);
             dataExporter.setRepeat(repeatVE);
+            dataExporter.setBatchSize(batchSizeVE);
+            dataExporter.setTypedCells(typedCellsVE);
+            dataExporter.setAsync(asyncVE);
+            dataExporter.setParallel(parallelVE);
 			actionSource.addActionListener(dataExporter);
 		}
 	}
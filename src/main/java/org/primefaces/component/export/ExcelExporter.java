@@ -17,11 +17,18 @@ package org.primefaces.component.export;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Calendar;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.el.MethodExpression;
+import javax.faces.component.EditableValueHolder;
 import javax.faces.component.UIComponent;
+import javax.faces.component.UISelectMany;
+import javax.faces.component.ValueHolder;
 import javax.faces.component.visit.VisitCallback;
 import javax.faces.component.visit.VisitContext;
 import javax.faces.context.ExternalContext;
@@ -29,6 +36,7 @@ import javax.faces.context.FacesContext;
 import org.apache.poi.hssf.usermodel.HSSFRichTextString;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -41,6 +49,17 @@ import org.primefaces.util.Constants;
 
 public class ExcelExporter extends Exporter {
 
+    /**
+     * Format of date cells in typed cell mode.
+     */
+    protected static final String DATE_FORMAT = "m/d/yy h:mm";
+    
+    private boolean typedCells;
+    
+    private Workbook styledWorkbook;
+    
+    private Map<String,CellStyle> cellStyles;
+
     @Override
     public void export(FacesContext context, DataTable table, String filename, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
         Workbook wb = createWorkBook();
@@ -72,14 +91,23 @@ public class ExcelExporter extends Exporter {
     		preProcessor.invoke(context.getELContext(), new Object[]{wb});
     	}
 
-        for(DataTable table : tables) {
+        List<List<Object[]>> tableRows = isParallel() ? readInParallel(context, tables, pageOnly, selectionOnly) : null;
+        
+        for(int i = 0; i < tables.size(); i++) {
+            DataTable table = tables.get(i);
             String sheetName = getSheetName(context, table);
             if(sheetName == null) {
                 sheetName = table.getId();
             }
             
             Sheet sheet = wb.createSheet(sheetName);
-            exportTable(context, table, sheet, pageOnly, selectionOnly);
+            List<Object[]> rows = (tableRows == null) ? null : tableRows.get(i);
+            if(rows == null) {
+                exportTable(context, table, sheet, pageOnly, selectionOnly);
+            }
+            else {
+                exportTable(table, sheet, rows);
+            }
         }
             	
     	if(postProcessor != null) {
@@ -181,6 +209,9 @@ public class ExcelExporter extends Exporter {
         if(column.getExportFunction() != null) {
             cell.setCellValue(createRichTextString(exportColumnByFunction(context, column)));
         }
+        else if(typedCells && addTypedColumnValue(cell, components)) {
+            return;
+        }
         else {
             StringBuilder builder = new StringBuilder();
             for (UIComponent component : components) {
@@ -196,6 +227,90 @@ public class ExcelExporter extends Exporter {
         }
     }
     
+    /**
+     * Writes numbers, dates and booleans of a single output component as native cell values instead of converted text.
+     * 
+     * @return false if the cell has to be exported as text
+     */
+    protected boolean addTypedColumnValue(Cell cell, List<UIComponent> components) {
+        UIComponent output = null;
+        for(UIComponent component : components) {
+            if(component.isRendered()) {
+                if(output != null || !(component instanceof ValueHolder) || component instanceof UISelectMany) {
+                    return false;
+                }
+                
+                output = component;
+            }
+        }
+        
+        if(output == null || (output instanceof EditableValueHolder && ((EditableValueHolder) output).getSubmittedValue() != null)) {
+            return false;
+        }
+        
+        return setTypedCellValue(cell, ((ValueHolder) output).getValue());
+    }
+    
+    /**
+     * @return false if the value isn't a number, date or boolean and has to be exported as text
+     */
+    protected boolean setTypedCellValue(Cell cell, Object value) {
+        if(value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            if(Double.isNaN(number) || Double.isInfinite(number)) {
+                return false;
+            }
+            
+            cell.setCellValue(number);
+        }
+        else if(value instanceof Date) {
+            cell.setCellValue((Date) value);
+            cell.setCellStyle(getCellStyle(cell.getSheet().getWorkbook(), DATE_FORMAT));
+        }
+        else if(value instanceof Calendar) {
+            cell.setCellValue((Calendar) value);
+            cell.setCellStyle(getCellStyle(cell.getSheet().getWorkbook(), DATE_FORMAT));
+        }
+        else if(value instanceof Boolean) {
+            cell.setCellValue((Boolean) value);
+        }
+        else {
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Returns a shared style per data format, workbooks only support a limited number of styles.
+     */
+    protected CellStyle getCellStyle(Workbook workbook, String format) {
+        if(styledWorkbook != workbook) {
+            styledWorkbook = workbook;
+            cellStyles = new HashMap<String, CellStyle>();
+        }
+        
+        CellStyle cellStyle = cellStyles.get(format);
+        if(cellStyle == null) {
+            cellStyle = workbook.createCellStyle();
+            cellStyle.setDataFormat(workbook.createDataFormat().getFormat(format));
+            cellStyles.put(format, cellStyle);
+        }
+        
+        return cellStyle;
+    }
+    
+    public boolean isTypedCells() {
+        return typedCells;
+    }
+
+    /**
+     * @param typedCells whether numbers, dates and booleans are exported as native cell values, ignoring their converters
+     */
+    public void setTypedCells(boolean typedCells) {
+        this.typedCells = typedCells;
+    }
+    
     protected RichTextString createRichTextString(String value) {
         return new HSSFRichTextString(value);
     }
@@ -240,4 +355,27 @@ public class ExcelExporter extends Exporter {
     	
     	table.setRowIndex(-1);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Writes the rows of a table read outside of the request.
+     */
+    protected void exportTable(DataTable table, Sheet sheet, List<Object[]> rows) {
+        addColumnFacets(table, sheet, Exporter.ColumnType.HEADER);
+        
+        for(Object[] values : rows) {
+            Row row = sheet.createRow(sheet.getLastRowNum() + 1);
+            
+            for(int i = 0; i < values.length; i++) {
+                Cell cell = row.createCell(i);
+                
+                if(!typedCells || !setTypedCellValue(cell, values[i])) {
+                    cell.setCellValue(createRichTextString(TableSnapshot.format(values[i])));
+                }
+            }
+        }
+        
+        if (table.hasFooterColumn()) {
+            addColumnFacets(table, sheet, Exporter.ColumnType.FOOTER);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.export;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.faces.FacesException;
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpSessionActivationListener;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionBindingListener;
+import javax.servlet.http.HttpSessionEvent;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.primefaces.application.resource.DynamicContentType;
+import org.primefaces.component.datatable.DataTable;
+import org.primefaces.context.RequestContext;
+import org.primefaces.util.Constants;
+
+/**
+ * Export of a DataTable running on the export thread pool, written to a temporary file
+ * that is downloaded once through the dynamic content resource.
+ * 
+ * Components can't be used outside of the request, so the table is captured as a {@link TableSnapshot} on the request thread.
+ */
+public class ExportJob implements Runnable {
+
+    public enum Status {
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    private static final Logger LOG = Logger.getLogger(ExportJob.class.getName());
+
+    private static final String SESSION_KEY = "primefaces.exportJobs";
+
+    private final String id;
+    private final Exporter exporter;
+    private final String fileName;
+    private final String encoding;
+    private final TableSnapshot snapshot;
+
+    private volatile Status status = Status.RUNNING;
+    private volatile int exportedRows;
+    private volatile File file;
+    private volatile Future<?> future;
+    private volatile boolean cancelled;
+
+    private ExportJob(Exporter exporter, String fileName, String encoding, TableSnapshot snapshot) {
+        this.id = UUID.randomUUID().toString();
+        this.exporter = exporter;
+        this.fileName = fileName;
+        this.encoding = encoding;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Captures the rows and columns to export on the request thread.
+     */
+    public static ExportJob create(FacesContext context, DataTable table, Exporter exporter, String fileName, boolean pageOnly, boolean selectionOnly, String encoding) {
+        if(!(exporter instanceof CSVExporter) && !(exporter instanceof ExcelExporter)) {
+            throw new FacesException("Asynchronous export is only supported for csv and excel types.");
+        }
+
+        TableSnapshot snapshot = TableSnapshot.capture(context, table, exporter, pageOnly, selectionOnly);
+
+        //fail before the rows are written, headers take one row
+        int maxRows = SpreadsheetVersion.EXCEL97.getMaxRows();
+        if(exporter instanceof ExcelExporter && !(exporter instanceof ExcelXExporter) && snapshot.getRowCount() >= maxRows) {
+            throw new FacesException("Export of " + snapshot.getRowCount() + " rows exceeds the " + maxRows + " rows of the xls format, use xlsx instead.");
+        }
+
+        return new ExportJob(exporter, fileName, encoding, snapshot);
+    }
+
+    /**
+     * Submits the job to the export thread pool and registers it in the session.
+     * 
+     * @return URL to poll the status with the <code>status</code> parameter and to download the file once the job is done
+     */
+    public String submit(FacesContext context) {
+        try {
+            future = RequestContext.getCurrentInstance().getApplicationContext().getExportExecutorService().submit(this);
+        }
+        catch(RejectedExecutionException e) {
+            throw new FacesException("Too many running background exports, the export has been rejected.", e);
+        }
+
+        getJobs(context, true).put(this);
+
+        String resourcePath = context.getApplication().getResourceHandler().createResource("dynamiccontent.properties", Constants.LIBRARY, getContentType()).getRequestPath();
+        StringBuilder url = new StringBuilder(resourcePath);
+        url.append("&").append(Constants.DYNAMIC_CONTENT_PARAM).append("=").append(id)
+                .append("&").append(Constants.DYNAMIC_CONTENT_TYPE_PARAM).append("=").append(DynamicContentType.EXPORT_JOB.toString());
+
+        return context.getExternalContext().encodeResourceURL(url.toString());
+    }
+
+    public void run() {
+        File exportFile = null;
+        try {
+            exportFile = File.createTempFile("primefaces-export", getExtension());
+            file = exportFile;
+
+            OutputStream out = new FileOutputStream(exportFile);
+            try {
+                final RowWriter writer = (exporter instanceof CSVExporter) ? new CSVRowWriter(out) : new ExcelRowWriter(out);
+                writer.write(snapshot.getHeaders(), true);
+                snapshot.forEachRow(new TableSnapshot.RowCallback() {
+
+                    public void row(Object[] values) throws Exception {
+                        if(cancelled || Thread.currentThread().isInterrupted()) {
+                            throw new CancellationException();
+                        }
+
+                        writer.write(values, false);
+                        exportedRows++;
+                    }
+                });
+                writer.close();
+            }
+            finally {
+                out.close();
+            }
+
+            status = Status.DONE;
+        }
+        catch(Throwable e) {
+            if(!cancelled) {
+                LOG.log(Level.SEVERE, "Export " + fileName + " failed.", e);
+            }
+            status = Status.FAILED;
+
+            if(exportFile != null) {
+                exportFile.delete();
+            }
+        }
+
+        //discarded while running, e.g. the session expired and nobody downloads the file anymore
+        if(cancelled && exportFile != null) {
+            exportFile.delete();
+        }
+    }
+
+    /**
+     * Cancels the job and deletes its file, a running job deletes its file when it ends.
+     */
+    public void discard() {
+        cancelled = true;
+
+        Future<?> task = future;
+        if(task != null) {
+            task.cancel(true);
+        }
+
+        File exportFile = file;
+        if(exportFile != null && status != Status.RUNNING) {
+            exportFile.delete();
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getExportedRows() {
+        return exportedRows;
+    }
+
+    public int getTotalRows() {
+        return snapshot.getRowCount();
+    }
+
+    /**
+     * @return percentage of exported rows
+     */
+    public int getProgress() {
+        if(status == Status.DONE) {
+            return 100;
+        }
+
+        int totalRows = snapshot.getRowCount();
+
+        return totalRows <= 0 ? 0 : (int) Math.min(99, exportedRows * 100L / totalRows);
+    }
+
+    /**
+     * @return the exported file, only available when the job is done
+     */
+    public File getFile() {
+        return (status == Status.DONE) ? file : null;
+    }
+
+    public String getFileName() {
+        return fileName + getExtension();
+    }
+
+    public String getContentType() {
+        return (exporter instanceof CSVExporter) ? "text/csv; charset=" + encoding : "application/vnd.ms-excel";
+    }
+
+    private String getExtension() {
+        if(exporter instanceof CSVExporter) {
+            return ".csv";
+        }
+
+        return (exporter instanceof ExcelXExporter) ? ".xlsx" : ".xls";
+    }
+
+    /**
+     * Looks up a job of the current session.
+     * 
+     * @param remove whether the job is removed, e.g. when its file is downloaded
+     */
+    public static ExportJob find(FacesContext context, String id, boolean remove) {
+        ExportJobs jobs = getJobs(context, false);
+        if(jobs == null) {
+            return null;
+        }
+
+        return remove ? jobs.remove(id) : jobs.get(id);
+    }
+
+    private static ExportJobs getJobs(FacesContext context, boolean create) {
+        Map<String,Object> sessionMap = context.getExternalContext().getSessionMap();
+        ExportJobs jobs = (ExportJobs) sessionMap.get(SESSION_KEY);
+
+        if(jobs == null && create) {
+            jobs = new ExportJobs();
+            sessionMap.put(SESSION_KEY, jobs);
+        }
+
+        return jobs;
+    }
+
+    /**
+     * Jobs of a session, running jobs are cancelled and files are deleted when the session ends or is passivated.
+     * Jobs are bound to the files and threads of this instance, so they are not serialized with the session.
+     */
+    private static class ExportJobs implements HttpSessionBindingListener, HttpSessionActivationListener, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private transient ConcurrentMap<String,ExportJob> jobs = new ConcurrentHashMap<String, ExportJob>();
+
+        void put(ExportJob job) {
+            //failed jobs that were never polled again
+            for(ExportJob existing : jobs.values()) {
+                if(existing.getStatus() == Status.FAILED) {
+                    jobs.remove(existing.getId());
+                }
+            }
+
+            jobs.put(job.getId(), job);
+        }
+
+        ExportJob get(String id) {
+            return jobs.get(id);
+        }
+
+        ExportJob remove(String id) {
+            return jobs.remove(id);
+        }
+
+        public void valueBound(HttpSessionBindingEvent event) {
+            //NoOp
+        }
+
+        public void valueUnbound(HttpSessionBindingEvent event) {
+            discardAll();
+        }
+
+        public void sessionWillPassivate(HttpSessionEvent event) {
+            discardAll();
+        }
+
+        public void sessionDidActivate(HttpSessionEvent event) {
+            //NoOp
+        }
+
+        private void discardAll() {
+            for(ExportJob job : jobs.values()) {
+                job.discard();
+            }
+
+            jobs.clear();
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            jobs = new ConcurrentHashMap<String, ExportJob>();
+        }
+    }
+
+    private interface RowWriter {
+
+        void write(Object[] values, boolean header) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private class CSVRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CSVRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, encoding));
+        }
+
+        public void write(Object[] values, boolean header) throws IOException {
+            CSVExporter csvExporter = (CSVExporter) exporter;
+
+            for(int i = 0; i < values.length; i++) {
+                if(i > 0) {
+                    writer.write(',');
+                }
+
+                csvExporter.addColumnValue(writer, TableSnapshot.format(values[i]));
+            }
+
+            writer.write('\n');
+        }
+
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private class ExcelRowWriter implements RowWriter {
+
+        private final OutputStream out;
+        private final ExcelExporter excelExporter;
+        private final Workbook workbook;
+        private final Sheet sheet;
+        private int rowIndex;
+
+        ExcelRowWriter(OutputStream out) {
+            this.out = out;
+            this.excelExporter = (ExcelExporter) exporter;
+            this.workbook = excelExporter.createWorkBook();
+            this.sheet = workbook.createSheet(fileName);
+        }
+
+        public void write(Object[] values, boolean header) throws IOException {
+            Row row = sheet.createRow(rowIndex++);
+
+            for(int i = 0; i < values.length; i++) {
+                Cell cell = row.createCell(i);
+
+                if(header || !excelExporter.setTypedCellValue(cell, values[i])) {
+                    cell.setCellValue(excelExporter.createRichTextString(TableSnapshot.format(values[i])));
+                }
+            }
+        }
+
+        public void close() throws IOException {
+            workbook.write(out);
+
+            if(workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+        }
+    }
+}
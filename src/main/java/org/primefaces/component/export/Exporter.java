@@ -15,12 +15,26 @@
  */
 package org.primefaces.component.export;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.el.MethodExpression;
 import javax.faces.FacesException;
@@ -38,6 +52,7 @@ import javax.faces.convert.Converter;
 import org.primefaces.component.celleditor.CellEditor;
 
 import org.primefaces.component.datatable.DataTable;
+import org.primefaces.context.RequestContext;
 import org.primefaces.util.ComponentUtils;
 
 public abstract class Exporter {
@@ -62,6 +77,61 @@ public abstract class Exporter {
         }
 	};
 
+    /**
+     * Formats the rows of a captured table, called on the application thread pool.
+     */
+    protected interface TableFormatter<T> {
+
+        T format(int index, TableSnapshot snapshot) throws Exception;
+
+        /**
+         * Releases a result that is not used because formatting another table failed.
+         */
+        void discard(T result);
+    }
+
+    /**
+     * Formats the rows of a captured table into a temporary file, so formatted tables are not held in memory.
+     */
+    protected abstract static class TableFileFormatter implements TableFormatter<File> {
+
+        public File format(int index, TableSnapshot snapshot) throws Exception {
+            File file = File.createTempFile("primefaces-export", ".tmp");
+            boolean formatted = false;
+
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+                try {
+                    format(index, snapshot, writer);
+                }
+                finally {
+                    writer.close();
+                }
+
+                formatted = true;
+            }
+            finally {
+                if(!formatted) {
+                    file.delete();
+                }
+            }
+
+            return file;
+        }
+
+        public void discard(File file) {
+            file.delete();
+        }
+
+        protected abstract void format(int index, TableSnapshot snapshot, Writer writer) throws Exception;
+    }
+
+    private int batchSize;
+
+    private boolean parallel;
+
+    private Map<Class<?>,Converter> typeConverters;
+
     public abstract void export(FacesContext facesContext, DataTable table,
 			String outputFileName, boolean pageOnly, boolean selectionOnly,
 			String encodingType, MethodExpression preProcessor,
@@ -147,8 +217,7 @@ public abstract class Exporter {
 			
             Converter converter = valueHolder.getConverter();
             if(converter == null) {
-                Class valueType = value.getClass();
-                converter = context.getApplication().createConverter(valueType);
+                converter = getConverterForType(context, value.getClass());
             }
             
             if(converter != null) {
@@ -206,6 +275,24 @@ public abstract class Exporter {
 		}
     }
     
+    /**
+     * Looks up the by-type converter once per export instead of once per cell.
+     */
+    protected Converter getConverterForType(FacesContext context, Class<?> valueType) {
+        if(typeConverters == null) {
+            typeConverters = new HashMap<Class<?>, Converter>();
+        }
+        
+        if(typeConverters.containsKey(valueType)) {
+            return typeConverters.get(valueType);
+        }
+        
+        Converter converter = context.getApplication().createConverter(valueType);
+        typeConverters.put(valueType, converter);
+        
+        return converter;
+    }
+    
     protected void exportPageOnly(FacesContext context, DataTable table, Object document) {        
         int first = table.getFirst();
         int rows = table.getRows();
@@ -227,20 +314,25 @@ public abstract class Exporter {
         boolean lazy = table.isLazy();
         
         if(lazy) {
-        	 if(rowCount > 0)
-             {
-                table.setFirst(0);
-                table.setRows(rowCount);
-                table.clearLazyCache();
-                table.loadLazyData();
-             }
-
-            for(int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
-                exportRow(table, document, rowIndex);
+            if(batchSize > 0 && rowCount > batchSize) {
+                exportAllInBatches(table, document, rowCount);
+            }
+            else {
+                if(rowCount > 0) {
+                    table.setFirst(0);
+                    table.setRows(rowCount);
+                    table.clearLazyCache();
+                    table.loadLazyData();
+                }
+
+                for(int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+                    exportRow(table, document, rowIndex);
+                }
             }
      
             //restore
             table.setFirst(first);
+            table.setRows(rows);
             table.setRowIndex(-1);
             table.clearLazyCache();
             table.loadLazyData();
@@ -254,6 +346,25 @@ public abstract class Exporter {
             table.setFirst(first);
         }
     }
+    
+    /**
+     * Loads and exports the rows of a lazy table batch by batch, so only one batch is kept in memory.
+     */
+    protected void exportAllInBatches(DataTable table, Object document, int rowCount) {
+        for(int offset = 0; offset < rowCount; offset += batchSize) {
+            table.setFirst(offset);
+            table.setRows(batchSize);
+            table.clearLazyCache();
+            table.loadLazyData();
+            
+            int last = Math.min(offset + batchSize, rowCount);
+            for(int rowIndex = offset; rowIndex < last; rowIndex++) {
+                exportRow(table, document, rowIndex);
+            }
+            
+            table.setRowIndex(-1);
+        }
+    }
 
     protected void exportRow(DataTable table, Object document, int rowIndex) {
         table.setRowIndex(rowIndex);
@@ -324,6 +435,168 @@ public abstract class Exporter {
         return null;
     }
     
+    /**
+     * Captures the given tables on the request thread and formats their rows on the application thread pool, one task per table.
+     * 
+     * @return the results in the order of the tables, null for tables that can't be captured and have to be exported on the request thread
+     */
+    protected <T> List<T> formatInParallel(FacesContext context, List<DataTable> tables, boolean pageOnly, boolean selectionOnly, final TableFormatter<T> formatter) {
+        ExecutorService executor = RequestContext.getCurrentInstance().getApplicationContext().getExecutorService();
+        List<FutureTask<T>> tasks = new ArrayList<FutureTask<T>>(tables.size());
+        List<T> results = new ArrayList<T>(tables.size());
+        boolean completed = false;
+        
+        try {
+            for(int i = 0; i < tables.size(); i++) {
+                final int index = i;
+                final TableSnapshot snapshot = TableSnapshot.tryCapture(context, tables.get(i), this, pageOnly, selectionOnly);
+                if(snapshot == null) {
+                    tasks.add(null);
+                    continue;
+                }
+                
+                FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+                    
+                    public T call() throws Exception {
+                        return formatter.format(index, snapshot);
+                    }
+                });
+                tasks.add(task);
+                
+                try {
+                    executor.execute(task);
+                }
+                catch(RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+            
+            for(FutureTask<T> task : tasks) {
+                if(task == null) {
+                    results.add(null);
+                }
+                else {
+                    //formats on the request thread if the pool did not start the task yet
+                    task.run();
+                    results.add(task.get());
+                }
+            }
+            
+            completed = true;
+            return results;
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FacesException(e);
+        }
+        catch(ExecutionException e) {
+            throw new FacesException(e.getCause());
+        }
+        finally {
+            if(!completed) {
+                for(FutureTask<T> task : tasks) {
+                    if(task != null) {
+                        task.cancel(true);
+                    }
+                }
+                
+                discardResults(formatter, tasks);
+            }
+        }
+    }
+    
+    private <T> void discardResults(TableFormatter<T> formatter, List<FutureTask<T>> tasks) {
+        for(FutureTask<T> task : tasks) {
+            if(task != null && task.isDone() && !task.isCancelled()) {
+                try {
+                    T result = task.get();
+                    if(result != null) {
+                        formatter.discard(result);
+                    }
+                }
+                catch(Exception e) {
+                    //failed tasks have no result to release
+                }
+            }
+        }
+    }
+    
+    /**
+     * Copies a table formatted by a {@link TableFileFormatter} to the writer and deletes the file.
+     */
+    protected void writeFormattedTable(File file, Writer writer) throws IOException {
+        try {
+            Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+            try {
+                char[] buffer = new char[8192];
+                int length;
+                while((length = reader.read(buffer)) != -1) {
+                    writer.write(buffer, 0, length);
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        finally {
+            file.delete();
+        }
+    }
+    
+    /**
+     * Deletes the formatted tables that were not written.
+     */
+    protected void deleteFormattedTables(List<File> files) {
+        if(files != null) {
+            for(File file : files) {
+                if(file != null) {
+                    file.delete();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reads the cell values of the given tables in parallel.
+     * 
+     * @see #formatInParallel(javax.faces.context.FacesContext, java.util.List, boolean, boolean, org.primefaces.component.export.Exporter.TableFormatter)
+     */
+    protected List<List<Object[]>> readInParallel(FacesContext context, List<DataTable> tables, boolean pageOnly, boolean selectionOnly) {
+        return formatInParallel(context, tables, pageOnly, selectionOnly, new TableFormatter<List<Object[]>>() {
+            
+            public List<Object[]> format(int index, TableSnapshot snapshot) throws Exception {
+                return snapshot.getRowValues();
+            }
+            
+            public void discard(List<Object[]> rows) {
+                //held in memory only
+            }
+        });
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize number of rows loaded at once when all rows of a lazy table are exported, 0 to load all rows at once
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @param parallel whether the rows of multiple tables are read in parallel,
+     * tables are captured like asynchronous exports and exported on the request thread if they can't be captured
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+    
     protected void preRowExport(DataTable table, Object document) {}
     
     protected void postRowExport(DataTable table, Object document) {}
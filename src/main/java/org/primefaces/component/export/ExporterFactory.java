@@ -49,6 +49,10 @@ public class ExporterFactory {
                     exporter = new ExcelXStreamExporter();
                 break;    
                 
+                case PDFSTREAM:
+                    exporter = new PDFStreamExporter();
+                break;
+                
             }
         }
         catch(IllegalArgumentException e) {
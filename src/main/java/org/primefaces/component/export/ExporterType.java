@@ -21,5 +21,6 @@ public enum ExporterType {
     CSV,
     XML,
     XLSX,
-    XLSXSTREAM
+    XLSXSTREAM,
+    PDFSTREAM
 }
@@ -49,9 +49,9 @@ public class PDFExporter extends Exporter {
 	@Override
 	public void export(FacesContext context, DataTable table, String filename, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException { 
 		try {
-	        Document document = new Document();
-	        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-	        PdfWriter.getInstance(document, baos);
+	        Document document = createDocument();
+	        OutputStream out = createOutputStream(context.getExternalContext(), filename);
+	        PdfWriter.getInstance(document, out);
 	        
 	        if (preProcessor != null) {
 	    		preProcessor.invoke(context.getELContext(), new Object[]{document});
@@ -69,7 +69,7 @@ public class PDFExporter extends Exporter {
 	    	
 	        document.close();
 	    	
-	        writePDFToResponse(context.getExternalContext(), baos, filename);
+	        completeResponse(context.getExternalContext(), out, filename);
 	        
 		} catch(DocumentException e) {
 			throw new IOException(e.getMessage());
@@ -79,9 +79,9 @@ public class PDFExporter extends Exporter {
     @Override
     public void export(FacesContext context, List<String> clientIds, String outputFileName, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
         try {
-            Document document = new Document();
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, baos);
+            Document document = createDocument();
+            OutputStream out = createOutputStream(context.getExternalContext(), outputFileName);
+            PdfWriter.getInstance(document, out);
             
             if (preProcessor != null) {
 	    		preProcessor.invoke(context.getELContext(), new Object[]{document});
@@ -101,7 +101,7 @@ public class PDFExporter extends Exporter {
 	    	
 	        document.close();
 	    	
-	        writePDFToResponse(context.getExternalContext(), baos, outputFileName);
+	        completeResponse(context.getExternalContext(), out, outputFileName);
             
         } catch (DocumentException e) {
             throw new IOException(e.getMessage());
@@ -111,9 +111,9 @@ public class PDFExporter extends Exporter {
     @Override
     public void export(FacesContext context, String outputFileName, List<DataTable> tables, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
         try {
-	        Document document = new Document();
-	        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-	        PdfWriter.getInstance(document, baos);
+	        Document document = createDocument();
+	        OutputStream out = createOutputStream(context.getExternalContext(), outputFileName);
+	        PdfWriter.getInstance(document, out);
 	        
 	        if (preProcessor != null) {
 	    		preProcessor.invoke(context.getELContext(), new Object[]{document});
@@ -123,8 +123,18 @@ public class PDFExporter extends Exporter {
                 document.open();
             }
 	        
-            for(DataTable table : tables) {
-                document.add(exportPDFTable(context, table, pageOnly, selectionOnly, encodingType));
+            List<List<Object[]>> tableRows = isParallel() ? readInParallel(context, tables, pageOnly, selectionOnly) : null;
+            
+            for(int i = 0; i < tables.size(); i++) {
+                DataTable table = tables.get(i);
+                List<Object[]> rows = (tableRows == null) ? null : tableRows.get(i);
+                
+                if(rows == null) {
+                    document.add(exportPDFTable(context, table, pageOnly, selectionOnly, encodingType));
+                }
+                else {
+                    document.add(exportPDFTable(table, rows, encodingType));
+                }
                 
                 Paragraph preface = new Paragraph();
                 addEmptyLine(preface, 3);
@@ -137,7 +147,7 @@ public class PDFExporter extends Exporter {
 	    	
 	        document.close();
 	    	
-	        writePDFToResponse(context.getExternalContext(), baos, outputFileName);
+	        completeResponse(context.getExternalContext(), out, outputFileName);
 	        
 		} catch(DocumentException e) {
 			throw new IOException(e.getMessage());
@@ -171,6 +181,31 @@ public class PDFExporter extends Exporter {
     	return pdfTable;
 	}
     
+    /**
+     * Creates the table from rows read outside of the request.
+     */
+    protected PdfPTable exportPDFTable(DataTable table, List<Object[]> rows, String encoding) {
+        PdfPTable pdfTable = new PdfPTable(getColumnsCount(table));
+        this.cellFont = FontFactory.getFont(FontFactory.TIMES, encoding);
+        this.facetFont = FontFactory.getFont(FontFactory.TIMES, encoding, Font.DEFAULTSIZE, Font.BOLD);
+        
+        addColumnFacets(table, pdfTable, ColumnType.HEADER);
+        
+        for(Object[] values : rows) {
+            for(Object value : values) {
+                pdfTable.addCell(new Paragraph(TableSnapshot.format(value), this.cellFont));
+            }
+            
+            postRowExport(table, pdfTable);
+        }
+        
+        if (table.hasFooterColumn()) {
+            addColumnFacets(table, pdfTable, ColumnType.FOOTER);
+        }
+        
+        return pdfTable;
+    }
+    
     @Override
     protected void exportCells(DataTable table, Object document) {
         PdfPTable pdfTable = (PdfPTable) document;
@@ -247,17 +282,39 @@ public class PDFExporter extends Exporter {
         }
     }
     
+    protected Document createDocument() {
+        return new Document();
+    }
+    
+    /**
+     * @return the stream the document is written to, the document is buffered by default to send it with its content length
+     */
+    protected OutputStream createOutputStream(ExternalContext externalContext, String fileName) throws IOException {
+        return new ByteArrayOutputStream();
+    }
+    
+    /**
+     * Sends the document after it was closed.
+     */
+    protected void completeResponse(ExternalContext externalContext, OutputStream out, String fileName) throws IOException, DocumentException {
+        writePDFToResponse(externalContext, (ByteArrayOutputStream) out, fileName);
+    }
+    
     protected void writePDFToResponse(ExternalContext externalContext, ByteArrayOutputStream baos, String fileName) throws IOException, DocumentException {     
+    	configureResponse(externalContext, fileName);
+    	externalContext.setResponseContentLength(baos.size());
+    	OutputStream out = externalContext.getResponseOutputStream();
+        baos.writeTo(out);
+        externalContext.responseFlushBuffer();
+    }
+        
+    protected void configureResponse(ExternalContext externalContext, String fileName) {
     	externalContext.setResponseContentType("application/pdf");
     	externalContext.setResponseHeader("Expires", "0");
     	externalContext.setResponseHeader("Cache-Control","must-revalidate, post-check=0, pre-check=0");
     	externalContext.setResponseHeader("Pragma", "public");
     	externalContext.setResponseHeader("Content-disposition", "attachment;filename=" + fileName + ".pdf");
-    	externalContext.setResponseContentLength(baos.size());
     	externalContext.addResponseCookie(Constants.DOWNLOAD_COOKIE, "true", Collections.<String, Object>emptyMap());
-    	OutputStream out = externalContext.getResponseOutputStream();
-        baos.writeTo(out);
-        externalContext.responseFlushBuffer();
     }
         
     protected int getColumnsCount(DataTable table) {
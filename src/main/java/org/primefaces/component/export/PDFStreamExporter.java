@@ -0,0 +1,103 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import javax.faces.FacesException;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import org.primefaces.component.datatable.DataTable;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.PdfPTable;
+
+/**
+ * Different implementation of PDFExporter writing the document directly to the response:
+ * 
+ * Rows of the exported tables are added to the document every {@link #FLUSH_INTERVAL} rows and released,
+ * so neither the table nor the generated document are kept in memory. The response is sent without content length.
+ */
+public class PDFStreamExporter extends PDFExporter {
+
+    protected static final int FLUSH_INTERVAL = 500;
+
+    private Document document;
+
+    private int rowsSinceFlush;
+
+    @Override
+    protected Document createDocument() {
+        document = super.createDocument();
+        return document;
+    }
+
+    @Override
+    protected OutputStream createOutputStream(ExternalContext externalContext, String fileName) throws IOException {
+        configureResponse(externalContext, fileName);
+
+        return new BufferedOutputStream(externalContext.getResponseOutputStream());
+    }
+
+    @Override
+    protected void completeResponse(ExternalContext externalContext, OutputStream out, String fileName) throws IOException, DocumentException {
+        //stream is closed with the document
+        externalContext.responseFlushBuffer();
+    }
+
+    @Override
+    protected PdfPTable exportPDFTable(FacesContext context, DataTable table, boolean pageOnly, boolean selectionOnly, String encoding) {
+        rowsSinceFlush = 0;
+
+        PdfPTable pdfTable = super.exportPDFTable(context, table, pageOnly, selectionOnly, encoding);
+        //remaining rows are added by the caller
+        pdfTable.setComplete(true);
+
+        return pdfTable;
+    }
+
+    @Override
+    protected PdfPTable exportPDFTable(DataTable table, List<Object[]> rows, String encoding) {
+        rowsSinceFlush = 0;
+
+        PdfPTable pdfTable = super.exportPDFTable(table, rows, encoding);
+        pdfTable.setComplete(true);
+
+        return pdfTable;
+    }
+
+    @Override
+    protected void postRowExport(DataTable table, Object document) {
+        if(++rowsSinceFlush >= FLUSH_INTERVAL) {
+            PdfPTable pdfTable = (PdfPTable) document;
+            pdfTable.setComplete(false);
+
+            try {
+                //writes the rows added so far and removes them from the table
+                this.document.add(pdfTable);
+            }
+            catch(DocumentException e) {
+                throw new FacesException(e);
+            }
+
+            rowsSinceFlush = 0;
+        }
+    }
+}
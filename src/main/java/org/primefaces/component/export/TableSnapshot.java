@@ -0,0 +1,377 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.export;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.el.ValueExpression;
+import javax.faces.FacesException;
+import javax.faces.component.UIComponent;
+import javax.faces.component.ValueHolder;
+import javax.faces.context.FacesContext;
+import javax.faces.model.DataModel;
+import org.primefaces.component.api.DynamicColumn;
+import org.primefaces.component.api.UIColumn;
+import org.primefaces.component.datatable.DataTable;
+import org.primefaces.el.PropertyPathAccessor;
+import org.primefaces.model.CachingLazyDataModel;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortMeta;
+import org.primefaces.model.SortOrder;
+
+/**
+ * Rows and exportable columns of a DataTable captured on the request thread, so the cell values can be read on another thread.
+ * 
+ * Cells must be plain property paths of the iteration variable or static text, values are read without converters.
+ * A lazy model is loaded in batches and must not depend on the FacesContext.
+ */
+public class TableSnapshot {
+
+    /**
+     * Receives the cell values of every row, the array is reused for the next row.
+     */
+    public interface RowCallback {
+
+        void row(Object[] values) throws Exception;
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final String[] headers;
+    private final Object[][] columns;
+    private final List<?> rows;
+    private final LazyDataModel<?> lazyModel;
+    private final int first;
+    private final int rowCount;
+    private final String sortField;
+    private final SortOrder sortOrder;
+    private final List<SortMeta> multiSortMeta;
+    private final Map<String,Object> filters;
+    private final int batchSize;
+
+    private TableSnapshot(String[] headers, Object[][] columns, List<?> rows, LazyDataModel<?> lazyModel, int first, int rowCount,
+            String sortField, SortOrder sortOrder, List<SortMeta> multiSortMeta, Map<String,Object> filters, int batchSize) {
+        this.headers = headers;
+        this.columns = columns;
+        this.rows = rows;
+        this.lazyModel = lazyModel;
+        this.first = first;
+        this.rowCount = rowCount;
+        this.sortField = sortField;
+        this.sortOrder = sortOrder;
+        this.multiSortMeta = multiSortMeta;
+        this.filters = filters;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Captures the table on the request thread.
+     * 
+     * @throws FacesException if a column can't be read without the FacesContext
+     */
+    public static TableSnapshot capture(FacesContext context, DataTable table, Exporter exporter, boolean pageOnly, boolean selectionOnly) {
+        List<String> headers = new ArrayList<String>();
+        List<Object[]> columns = new ArrayList<Object[]>();
+        String var = table.getVar();
+        checkTypeConverters(context);
+
+        for(UIColumn column : table.getColumns()) {
+            if(column instanceof DynamicColumn) {
+                ((DynamicColumn) column).applyStatelessModel();
+            }
+
+            if(column.isRendered() && column.isExportable()) {
+                UIComponent header = column.getFacet("header");
+                String headerText = (header == null) ? column.getHeaderText() : exporter.exportValue(context, header);
+                headers.add(headerText == null ? "" : headerText);
+                columns.add(captureColumn(column, var));
+            }
+        }
+
+        List<?> rows = null;
+        LazyDataModel<?> lazyModel = null;
+        int first = 0;
+        int rowCount;
+
+        if(selectionOnly) {
+            rows = toList(table.getSelection());
+            rowCount = rows.size();
+        }
+        else if(table.isLazy()) {
+            lazyModel = (LazyDataModel<?>) table.getValue();
+            if(lazyModel instanceof CachingLazyDataModel) {
+                //the page cache is only available on the request thread
+                lazyModel = ((CachingLazyDataModel<?>) lazyModel).getDelegate();
+            }
+
+            rowCount = table.getRowCount();
+            if(pageOnly) {
+                first = table.getFirst();
+                rowCount = Math.max(0, Math.min(table.getRows() == 0 ? rowCount : table.getRows(), rowCount - first));
+            }
+        }
+        else {
+            List<?> value = (table.getFilteredValue() != null) ? table.getFilteredValue() : toList(table.getValue());
+            if(pageOnly && table.getRows() > 0) {
+                int from = Math.min(table.getFirst(), value.size());
+                value = value.subList(from, Math.min(from + table.getRows(), value.size()));
+            }
+
+            rows = new ArrayList<Object>(value);
+            rowCount = rows.size();
+        }
+
+        String sortField = null;
+        SortOrder sortOrder = null;
+        List<SortMeta> multiSortMeta = null;
+        if(lazyModel != null) {
+            if(table.isMultiSort()) {
+                multiSortMeta = table.getMultiSortMeta();
+            }
+            else {
+                sortField = table.resolveSortField();
+                sortOrder = table.convertSortOrder();
+            }
+        }
+
+        return new TableSnapshot(headers.toArray(new String[headers.size()]), columns.toArray(new Object[columns.size()][]), rows, lazyModel, first, rowCount,
+                sortField, sortOrder, multiSortMeta, new HashMap<String,Object>(table.getFilters()), exporter.getBatchSize());
+    }
+
+    /**
+     * @return the snapshot or null if the table has to be exported on the request thread
+     */
+    public static TableSnapshot tryCapture(FacesContext context, DataTable table, Exporter exporter, boolean pageOnly, boolean selectionOnly) {
+        try {
+            return capture(context, table, exporter, pageOnly, selectionOnly);
+        }
+        catch(FacesException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the parts of a cell, either a {@link PropertyPathAccessor} or static text
+     */
+    private static Object[] captureColumn(UIColumn column, String var) {
+        if(column.getExportFunction() != null) {
+            throw new FacesException("Column " + column.getClientId() + " can't be exported outside of the request because of its exportFunction.");
+        }
+
+        List<Object> parts = new ArrayList<Object>();
+        for(UIComponent child : column.getChildren()) {
+            if(!child.isRendered()) {
+                continue;
+            }
+
+            if(child instanceof ValueHolder) {
+                //converted values have to be exported on the request thread to keep their format
+                if(((ValueHolder) child).getConverter() != null) {
+                    throw new FacesException("Column " + column.getClientId() + " can't be exported outside of the request because of the converter of "
+                            + child.getClientId() + ".");
+                }
+
+                ValueExpression expression = child.getValueExpression("value");
+                if(expression == null) {
+                    Object value = ((ValueHolder) child).getValue();
+                    parts.add(value == null ? "" : value.toString());
+                }
+                else {
+                    PropertyPathAccessor accessor = PropertyPathAccessor.compile(expression, var);
+                    if(accessor == null) {
+                        throw new FacesException("Column " + column.getClientId() + " can't be exported outside of the request, "
+                                + expression.getExpressionString() + " is not a property of " + var + ".");
+                    }
+
+                    parts.add(accessor);
+                }
+            }
+            else {
+                //plain texts
+                String text = child.toString();
+                parts.add(text == null ? "" : text.trim());
+            }
+        }
+
+        return parts.toArray();
+    }
+
+    /**
+     * Values without a converter are exported with the converter registered for their type, only the standard
+     * converters of java.lang and java.math types produce the same text as {@link #format(java.lang.Object)}.
+     */
+    private static void checkTypeConverters(FacesContext context) {
+        for(Iterator<Class<?>> it = context.getApplication().getConverterTypes(); it.hasNext();) {
+            Class<?> type = it.next();
+            String name = type.getName();
+
+            if(!type.isPrimitive() && !name.startsWith("java.lang.") && !name.startsWith("java.math.")) {
+                throw new FacesException("Table can't be exported outside of the request because of the converter registered for " + name + ".");
+            }
+        }
+    }
+
+    private static List<?> toList(Object value) {
+        if(value == null) {
+            return new ArrayList<Object>();
+        }
+        else if(value instanceof List) {
+            return (List<?>) value;
+        }
+        else if(value instanceof Collection) {
+            return new ArrayList<Object>((Collection<?>) value);
+        }
+        else if(value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> list = new ArrayList<Object>(length);
+            for(int i = 0; i < length; i++) {
+                list.add(Array.get(value, i));
+            }
+
+            return list;
+        }
+        else if(value instanceof DataModel && ((DataModel) value).getWrappedData() instanceof List) {
+            return (List<?>) ((DataModel) value).getWrappedData();
+        }
+
+        return Arrays.asList(value);
+    }
+
+    /**
+     * Reads the cell values of all rows, lazy rows are loaded batch by batch.
+     */
+    public void forEachRow(RowCallback callback) throws Exception {
+        Object[] values = new Object[columns.length];
+
+        if(lazyModel == null) {
+            for(Object row : rows) {
+                checkInterrupted();
+                readRow(row, values);
+                callback.row(values);
+            }
+        }
+        else {
+            int last = first + rowCount;
+            for(int offset = first; offset < last; offset += batchSize) {
+                checkInterrupted();
+                int size = Math.min(batchSize, last - offset);
+                List<?> batch = (multiSortMeta == null)
+                        ? lazyModel.load(offset, size, sortField, sortOrder, filters)
+                        : lazyModel.load(offset, size, multiSortMeta, filters);
+
+                if(batch == null || batch.isEmpty()) {
+                    break;
+                }
+
+                for(Object row : batch) {
+                    readRow(row, values);
+                    callback.row(values);
+                }
+            }
+        }
+    }
+
+    /**
+     * A cancelled export must fail instead of ending with a truncated output.
+     */
+    private static void checkInterrupted() throws InterruptedException {
+        if(Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("Export has been cancelled.");
+        }
+    }
+
+    /**
+     * @return copies of the cell values of all rows
+     */
+    public List<Object[]> getRowValues() throws Exception {
+        final List<Object[]> rowValues = new ArrayList<Object[]>(rowCount);
+        forEachRow(new RowCallback() {
+
+            public void row(Object[] values) {
+                rowValues.add(values.clone());
+            }
+        });
+
+        return rowValues;
+    }
+
+    private void readRow(Object row, Object[] values) {
+        for(int i = 0; i < columns.length; i++) {
+            values[i] = getCellValue(columns[i], row);
+        }
+    }
+
+    private Object getCellValue(Object[] parts, Object row) {
+        if(parts.length == 1) {
+            return getPartValue(parts[0], row);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for(Object part : parts) {
+            Object value = getPartValue(part, row);
+            if(value != null) {
+                builder.append(format(value));
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private Object getPartValue(Object part, Object row) {
+        if(part instanceof PropertyPathAccessor) {
+            PropertyPathAccessor accessor = (PropertyPathAccessor) part;
+            Object value = accessor.getValue(row);
+            if(value == PropertyPathAccessor.UNRESOLVED) {
+                throw new FacesException("Cannot resolve " + accessor.getExpressionString() + " of " + row.getClass().getName());
+            }
+
+            return value;
+        }
+
+        return part;
+    }
+
+    /**
+     * @return the value as text, same as the standard converters when exported on the request thread
+     */
+    public static String format(Object value) {
+        if(value == null) {
+            return "";
+        }
+        else if(value instanceof Enum) {
+            return ((Enum) value).name();
+        }
+
+        return value.toString();
+    }
+
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return number of rows to export, lazy models may return less
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+}
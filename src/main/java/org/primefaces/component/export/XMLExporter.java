@@ -16,11 +16,14 @@
 package org.primefaces.component.export;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import javax.el.MethodExpression;
 import javax.faces.FacesException;
 import javax.faces.component.UIComponent;
+import javax.faces.component.visit.VisitCallback;
+import javax.faces.component.visit.VisitContext;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import org.primefaces.component.api.DynamicColumn;
@@ -40,6 +43,90 @@ public class XMLExporter extends Exporter {
 		PrintWriter writer = new PrintWriter(osw);	
 		
     	writer.write("<?xml version=\"1.0\"?>\n");
+        exportTable(context, table, writer, pageOnly, selectionOnly);
+            	
+        writer.flush();
+        writer.close();
+        
+        externalContext.responseFlushBuffer();
+	}
+    
+    @Override
+    public void export(FacesContext context, List<String> clientIds, String outputFileName, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
+        ExternalContext externalContext = context.getExternalContext();
+        configureResponse(externalContext, outputFileName);
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(externalContext.getResponseOutputStream(), encodingType));
+        
+        writer.write("<?xml version=\"1.0\"?>\n");
+        writer.write("<tables>\n");
+        
+        VisitContext visitContext = VisitContext.createVisitContext(context, clientIds, null);
+        VisitCallback visitCallback = new XMLExportVisitCallback(this, writer, pageOnly, selectionOnly);
+        context.getViewRoot().visitTree(visitContext, visitCallback);
+        
+        writer.write("</tables>");
+        
+        writer.flush();
+        writer.close();
+        
+        externalContext.responseFlushBuffer();
+    }
+    
+    /**
+     * Writes the elements of the tables into a common <code>tables</code> root element.
+     */
+    @Override
+    public void export(FacesContext context, String outputFileName, final List<DataTable> tables, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
+        ExternalContext externalContext = context.getExternalContext();
+        configureResponse(externalContext, outputFileName);
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(externalContext.getResponseOutputStream(), encodingType));
+        
+        List<File> tableRows = null;
+        if(isParallel()) {
+            final List<String[]> tableTags = new ArrayList<String[]>(tables.size());
+            for(DataTable table : tables) {
+                tableTags.add(getColumnTags(table));
+            }
+            
+            tableRows = formatInParallel(context, tables, pageOnly, selectionOnly, new TableFileFormatter() {
+                
+                protected void format(int index, TableSnapshot snapshot, Writer writer) throws Exception {
+                    formatRows(tables.get(index).getVar(), tableTags.get(index), snapshot, writer);
+                }
+            });
+        }
+        
+        try {
+            writer.write("<?xml version=\"1.0\"?>\n");
+            writer.write("<tables>\n");
+
+            for(int i = 0; i < tables.size(); i++) {
+                DataTable table = tables.get(i);
+                File rows = (tableRows == null) ? null : tableRows.get(i);
+
+                if(rows == null) {
+                    exportTable(context, table, writer, pageOnly, selectionOnly);
+                }
+                else {
+                    writer.write("<" + table.getId() + ">\n");
+                    writeFormattedTable(rows, writer);
+                    writer.write("</" + table.getId() + ">\n");
+                }
+            }
+        }
+        finally {
+            deleteFormattedTables(tableRows);
+        }
+        
+        writer.write("</tables>");
+        
+        writer.flush();
+        writer.close();
+        
+        externalContext.responseFlushBuffer();
+    }
+    
+    public void exportTable(FacesContext context, DataTable table, PrintWriter writer, boolean pageOnly, boolean selectionOnly) {
     	writer.write("<" + table.getId() + ">\n");
     	
         if (pageOnly) {
@@ -52,24 +139,44 @@ public class XMLExporter extends Exporter {
             exportAll(context, table, writer);
         }
     	
-    	writer.write("</" + table.getId() + ">");
+    	writer.write("</" + table.getId() + ">\n");
     	
     	table.setRowIndex(-1);
-            	
-        writer.flush();
-        writer.close();
-        
-        externalContext.responseFlushBuffer();
-	}
+    }
     
-    @Override
-    public void export(FacesContext facesContext, List<String> clientIds, String outputFileName, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
-        throw new UnsupportedOperationException("Not supported yet.");
+    /**
+     * Writes the rows of a table read outside of the request.
+     */
+    protected void formatRows(String var, String[] tags, TableSnapshot snapshot, final Writer writer) throws Exception {
+        final String rowStart = "\t<" + var + ">\n";
+        final String rowEnd = "\t</" + var + ">\n";
+        final String[] columnTags = tags;
+        
+        snapshot.forEachRow(new TableSnapshot.RowCallback() {
+            
+            public void row(Object[] values) throws IOException {
+                writer.write(rowStart);
+                for(int i = 0; i < values.length; i++) {
+                    writer.write("\t\t<" + columnTags[i] + ">" + TableSnapshot.format(values[i]) + "</" + columnTags[i] + ">\n");
+                }
+                writer.write(rowEnd);
+            }
+        });
     }
     
-    @Override
-    public void export(FacesContext facesContext, String outputFileName, List<DataTable> tables, boolean pageOnly, boolean selectionOnly, String encodingType, MethodExpression preProcessor, MethodExpression postProcessor) throws IOException {
-        throw new UnsupportedOperationException("Not supported yet.");
+    protected String[] getColumnTags(DataTable table) {
+        List<String> tags = new ArrayList<String>();
+        for (UIColumn col : table.getColumns()) {
+            if (col instanceof DynamicColumn) {
+                ((DynamicColumn) col).applyStatelessModel();
+            }
+            
+            if (col.isRendered() && col.isExportable()) {
+                tags.add(getColumnTag(col));
+            }
+        }
+        
+        return tags.toArray(new String[tags.size()]);
     }
     
     @Override
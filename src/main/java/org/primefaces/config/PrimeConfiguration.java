@@ -56,6 +56,7 @@ public class PrimeConfiguration {
     private boolean beanValidationDisabled = false;
     private boolean interpolateClientSideValidationMessages = false;
     private boolean earlyPostParamEvaluation = false;
+    private int threadPoolSize = 0;
 
     // internal config
     private boolean beanValidationAvailable = false;
@@ -146,6 +147,9 @@ public class PrimeConfiguration {
 
         value = externalContext.getInitParameter(Constants.ContextParams.EARLY_POST_PARAM_EVALUATION);
         earlyPostParamEvaluation = (value == null) ? false : Boolean.valueOf(value);
+
+        value = externalContext.getInitParameter(Constants.ContextParams.THREAD_POOL_SIZE);
+        threadPoolSize = (value == null) ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(value);
     }
 
     protected void initValidateEmptyFields(FacesContext context) {
@@ -379,4 +383,8 @@ public class PrimeConfiguration {
     public boolean isEarlyPostParamEvaluation() {
         return earlyPostParamEvaluation;
     }
+
+    public int getThreadPoolSize() {
+        return threadPoolSize;
+    }
 }
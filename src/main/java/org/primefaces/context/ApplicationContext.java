@@ -15,7 +15,13 @@
  */
 package org.primefaces.context;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.faces.context.FacesContext;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
@@ -59,5 +65,54 @@ public abstract class ApplicationContext {
     
     public abstract Validator getValidator();
     
+    /**
+     * Bounded thread pool for background work like parallel filtering.
+     * Tasks must not access the FacesContext as it is bound to the request thread.
+     * Callers run rejected tasks on their own thread, by default every task is rejected.
+     */
+    public ExecutorService getExecutorService() {
+        return NoThreadsExecutorService.INSTANCE;
+    }
+    
+    /**
+     * Thread pool of background exports, separate from {@link #getExecutorService()} as exports run for a long time.
+     * By default every export is rejected.
+     */
+    public ExecutorService getExportExecutorService() {
+        return NoThreadsExecutorService.INSTANCE;
+    }
+    
     public abstract void release();
+    
+    /**
+     * Executor of contexts without a thread pool, e.g. custom contexts written before background tasks existed.
+     */
+    private static class NoThreadsExecutorService extends AbstractExecutorService {
+        
+        private static final NoThreadsExecutorService INSTANCE = new NoThreadsExecutorService();
+
+        public void execute(Runnable command) {
+            throw new RejectedExecutionException("No thread pool available.");
+        }
+
+        public void shutdown() {
+            //NoOp
+        }
+
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        public boolean isShutdown() {
+            return false;
+        }
+
+        public boolean isTerminated() {
+            return false;
+        }
+
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return false;
+        }
+    }
 }
@@ -16,7 +16,13 @@
 package org.primefaces.context;
 
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.faces.FacesException;
 import javax.faces.context.FacesContext;
 import javax.validation.Validation;
@@ -34,6 +40,8 @@ public class DefaultApplicationContext extends ApplicationContext {
 	private ValidatorFactory validatorFactory;
     private Validator validator;
     private CacheProvider cacheProvider;
+    private ExecutorService executorService;
+    private ExecutorService exportExecutorService;
     private Map<Class<?>, Map<String, Object>> enumCacheMap;
     private Map<Class<?>, Map<String, Object>> constantsCacheMap;
 
@@ -95,6 +103,65 @@ public class DefaultApplicationContext extends ApplicationContext {
         }
     }
 
+    @Override
+    public ExecutorService getExecutorService() {
+        
+        if (executorService == null) {
+            initExecutorService();
+        }
+        
+        return executorService;
+    }
+    
+    /**
+     * Lazy init executor service. Not required if no feature runs background tasks.
+     * Tasks beyond the queue capacity are rejected, callers are expected to run them on their own thread instead.
+     */
+    protected synchronized void initExecutorService() {
+        if (executorService == null) {
+            int poolSize = Math.max(1, config.getThreadPoolSize());
+            
+            executorService = createExecutorService("primefaces-worker-", poolSize, poolSize * 64);
+        }
+    }
+
+    @Override
+    public ExecutorService getExportExecutorService() {
+        
+        if (exportExecutorService == null) {
+            initExportExecutorService();
+        }
+        
+        return exportExecutorService;
+    }
+    
+    /**
+     * Lazy init executor service of background exports, separate from the shared pool so long running exports
+     * never delay tasks that requests are waiting for.
+     */
+    protected synchronized void initExportExecutorService() {
+        if (exportExecutorService == null) {
+            int poolSize = Math.max(1, config.getThreadPoolSize() / 2);
+            
+            exportExecutorService = createExecutorService("primefaces-export-", poolSize, poolSize * 4);
+        }
+    }
+    
+    private ExecutorService createExecutorService(final String threadNamePrefix, int poolSize, int queueSize) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, 
+                new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+                    
+                    private final AtomicInteger counter = new AtomicInteger();
+
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, threadNamePrefix + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
     @Override
     public Map<Class<?>, Map<String, Object>> getEnumCacheMap() {
         return enumCacheMap;
@@ -115,6 +182,14 @@ public class DefaultApplicationContext extends ApplicationContext {
         if (validatorFactory != null && config != null && config.isAtLeastBV11()) {
             validatorFactory.close();
         }
+        
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+        
+        if (exportExecutorService != null) {
+            exportExecutorService.shutdownNow();
+        }
     }
 
 }
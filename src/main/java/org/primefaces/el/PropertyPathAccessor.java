@@ -0,0 +1,187 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.el;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.el.ValueExpression;
+import javax.faces.FacesException;
+
+/**
+ * Reads simple <code>#{var.prop.path}</code> expressions directly from a row object,
+ * without going through the EL resolver chain.
+ * Getters are looked up once per bean class and shared by all accessors.
+ */
+public class PropertyPathAccessor {
+
+    /**
+     * Returned by {@link #getValue(java.lang.Object)} when a property could not be resolved as a bean or map property,
+     * callers should fall back to evaluate the original expression.
+     */
+    public static final Object UNRESOLVED = new Object();
+
+    private static final Pattern SIMPLE_EXPRESSION = Pattern.compile("^#\\{\\s*([a-zA-Z_$][\\w$]*)((?:\\s*\\.\\s*[a-zA-Z_$][\\w$]*)+)\\s*\\}$");
+
+    private static final Method NO_GETTER;
+
+    private static final ConcurrentMap<Class<?>,ConcurrentMap<String,Method>> GETTERS = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, Method>>();
+
+    static {
+        try {
+            NO_GETTER = Object.class.getMethod("toString");
+        }
+        catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final String expressionString;
+    private final String[] properties;
+
+    private PropertyPathAccessor(String expressionString, String[] properties) {
+        this.expressionString = expressionString;
+        this.properties = properties;
+    }
+
+    /**
+     * Compiles the given expression if it is a plain property path starting with the iteration variable.
+     *
+     * @param expression the expression to compile, e.g. <code>#{car.manufacturer.name}</code>
+     * @param var name of the iteration variable
+     * @return the accessor or <code>null</code> when the expression is too complex and has to be evaluated with EL
+     */
+    public static PropertyPathAccessor compile(ValueExpression expression, String var) {
+        if(expression == null || var == null || expression.isLiteralText()) {
+            return null;
+        }
+
+        return compile(expression.getExpressionString(), var);
+    }
+
+    public static PropertyPathAccessor compile(String expressionString, String var) {
+        if(expressionString == null || var == null) {
+            return null;
+        }
+
+        Matcher matcher = SIMPLE_EXPRESSION.matcher(expressionString.trim());
+        if(!matcher.matches() || !matcher.group(1).equals(var)) {
+            return null;
+        }
+
+        String path = matcher.group(2).replaceAll("\\s", "");
+        String[] properties = path.substring(1).split("\\.");
+
+        return new PropertyPathAccessor(expressionString, properties);
+    }
+
+    /**
+     * Reads the property path from the given row.
+     *
+     * @param row the row object, value of the iteration variable
+     * @return the value, <code>null</code> if an intermediate property is null or {@link #UNRESOLVED}
+     */
+    public Object getValue(Object row) {
+        Object base = row;
+
+        for(int i = 0; i < properties.length; i++) {
+            if(base == null) {
+                return null;
+            }
+
+            String property = properties[i];
+
+            if(base instanceof Map) {
+                base = ((Map) base).get(property);
+            }
+            else {
+                Method getter = getGetter(base.getClass(), property);
+                if(getter == null) {
+                    return UNRESOLVED;
+                }
+
+                try {
+                    base = getter.invoke(base);
+                }
+                catch (Exception e) {
+                    throw new FacesException("Cannot read property '" + property + "' of expression " + expressionString, e);
+                }
+            }
+        }
+
+        return base;
+    }
+
+    public String getExpressionString() {
+        return expressionString;
+    }
+
+    private static Method getGetter(Class<?> beanClass, String property) {
+        ConcurrentMap<String,Method> getters = GETTERS.get(beanClass);
+        if(getters == null) {
+            getters = new ConcurrentHashMap<String, Method>();
+            ConcurrentMap<String,Method> existing = GETTERS.putIfAbsent(beanClass, getters);
+            if(existing != null) {
+                getters = existing;
+            }
+        }
+
+        Method getter = getters.get(property);
+        if(getter == null) {
+            getter = findGetter(beanClass, property);
+            getters.put(property, getter == null ? NO_GETTER : getter);
+        }
+
+        return getter == NO_GETTER ? null : getter;
+    }
+
+    private static Method findGetter(Class<?> beanClass, String property) {
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(beanClass);
+
+            for(PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+                if(descriptor.getName().equals(property)) {
+                    Method readMethod = descriptor.getReadMethod();
+                    if(readMethod == null) {
+                        return null;
+                    }
+
+                    if(!Modifier.isPublic(readMethod.getDeclaringClass().getModifiers())) {
+                        readMethod.setAccessible(true);
+                    }
+
+                    return readMethod;
+                }
+            }
+        }
+        catch (IntrospectionException e) {
+            return null;
+        }
+        catch (SecurityException e) {
+            return null;
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symbolic selection of all rows matching the filters of a DataTable except the excluded row keys,
+ * used instead of loading every selected row e.g. to apply bulk actions with a single query.
+ */
+public class AllRowsSelection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Map<String,Object> filters;
+
+    private Set<String> excludedRowKeys;
+
+    public AllRowsSelection(Map<String,Object> filters, Set<String> excludedRowKeys) {
+        this.filters = (filters == null) ? new HashMap<String,Object>() : new HashMap<String,Object>(filters);
+        this.excludedRowKeys = (excludedRowKeys == null) ? new HashSet<String>() : new HashSet<String>(excludedRowKeys);
+    }
+
+    /**
+     * @return filters of the table when all rows were selected, in the format passed to {@link LazyDataModel#load}
+     */
+    public Map<String,Object> getFilters() {
+        return Collections.unmodifiableMap(filters);
+    }
+
+    public Set<String> getExcludedRowKeys() {
+        return Collections.unmodifiableSet(excludedRowKeys);
+    }
+
+    public boolean isSelected(Object rowKey) {
+        return rowKey != null && !excludedRowKeys.contains(String.valueOf(rowKey));
+    }
+}
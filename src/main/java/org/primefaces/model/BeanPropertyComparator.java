@@ -23,6 +23,7 @@ import javax.el.MethodExpression;
 import javax.el.ValueExpression;
 import javax.faces.FacesException;
 import javax.faces.context.FacesContext;
+import org.primefaces.el.PropertyPathAccessor;
 
 /**
  * Generic comparator for column sorting.
@@ -37,6 +38,7 @@ public class BeanPropertyComparator implements Comparator {
     private Locale locale;
     private Collator collator;
     private int nullSortOrder;
+    private PropertyPathAccessor accessor;
 
     public BeanPropertyComparator(ValueExpression sortBy, String var, SortOrder sortOrder, MethodExpression sortFunction, boolean caseSensitive, Locale locale, int nullSortOrder) {
         this.sortBy = sortBy;
@@ -47,18 +49,64 @@ public class BeanPropertyComparator implements Comparator {
         this.locale = locale;
         this.collator = Collator.getInstance(locale);
         this.nullSortOrder = nullSortOrder;
+        this.accessor = PropertyPathAccessor.compile(sortBy, var);
     }
 
-    @SuppressWarnings("unchecked")
     public int compare(Object obj1, Object obj2) {
+        FacesContext context = FacesContext.getCurrentInstance();
+
+        return compareValues(context, getValue(context, obj1), getValue(context, obj2));
+    }
+
+    /**
+     * Extracts the value to sort the row by, strings are converted to collation keys unless a sortFunction is defined.
+     * Comparing the keys with {@link #compareKeys(javax.faces.context.FacesContext, java.lang.Object, java.lang.Object)} is equivalent
+     * to comparing the rows, but does not evaluate sortBy again.
+     */
+    public Object getSortKey(FacesContext context, Object row) {
+        Object value = (accessor == null) ? PropertyPathAccessor.UNRESOLVED : accessor.getValue(row);
+
+        if(value == PropertyPathAccessor.UNRESOLVED) {
+            value = getValue(context, row);
+        }
+
+        if(sortFunction == null && value instanceof String) {
+            String text = caseSensitive ? (String) value : ((String) value).toLowerCase(locale);
+
+            return collator.getCollationKey(text);
+        }
+
+        return value;
+    }
+
+    /**
+     * @param context only required when a sortFunction is defined
+     */
+    public int compareKeys(FacesContext context, Object key1, Object key2) {
+        return compareValues(context, key1, key2);
+    }
+
+    public boolean hasSortFunction() {
+        return sortFunction != null;
+    }
+
+    public boolean isAscending() {
+        return asc;
+    }
+
+    private Object getValue(FacesContext context, Object row) {
         try {
-            FacesContext context = FacesContext.getCurrentInstance();
+            context.getExternalContext().getRequestMap().put(var, row);
 
-            context.getExternalContext().getRequestMap().put(var, obj1);
-            Object value1 = sortBy.getValue(context.getELContext());
-            context.getExternalContext().getRequestMap().put(var, obj2);
-            Object value2 = sortBy.getValue(context.getELContext());
+            return sortBy.getValue(context.getELContext());
+        } catch (Exception e) {
+            throw new FacesException(e);
+        }
+    }
 
+    @SuppressWarnings("unchecked")
+    private int compareValues(FacesContext context, Object value1, Object value2) {
+        try {
             int result;
             
             //Empty check
@@ -92,4 +140,4 @@ public class BeanPropertyComparator implements Comparator {
             throw new FacesException(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import javax.faces.context.FacesContext;
+import org.primefaces.cache.CacheProvider;
+import org.primefaces.cache.SessionCacheEntries;
+import org.primefaces.context.RequestContext;
+
+/**
+ * LazyDataModel decorator caching loaded pages and their row count in the configured {@link CacheProvider},
+ * so switching between already visited pages, sort orders or filters does not hit the backend again.
+ * Pages are keyed by the load arguments, expire after the time to live and the least recently used pages
+ * are evicted when more than the maximum number of pages are cached. Call {@link #invalidate()} after the data was modified.
+ * With {@link #setPrefetch(boolean)} the following page is loaded in the background, so the next page or live scroll chunk
+ * of a DataTable or DataScroller is served from the cache.
+ * Expired pages of all models are evicted from a region when pages are written, pages loaded during a request are removed
+ * when the session ends, so pages of discarded models do not stay in the cache.
+ * Invalidating the model cancels pending prefetches and discards pages of prefetches that were already running.
+ */
+public class CachingLazyDataModel<T> extends LazyDataModel<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String DEFAULT_REGION = "primefaces.lazyDataModel";
+
+    private final LazyDataModel<T> delegate;
+
+    private final String region;
+
+    private final String id;
+
+    private long timeToLive = 60000;
+
+    private int maxSize = 20;
+
+    private boolean prefetch;
+
+    private final Map<String,Boolean> keys;
+
+    private int generation;
+
+    private transient Map<String,FutureTask<?>> prefetches;
+
+    private transient SessionCacheEntries sessionEntries;
+
+    private static final Map<CacheProvider,ExpiringPages> EXPIRING_PAGES = new WeakHashMap<CacheProvider, ExpiringPages>();
+
+    public CachingLazyDataModel(LazyDataModel<T> delegate) {
+        this(delegate, DEFAULT_REGION);
+    }
+
+    public CachingLazyDataModel(LazyDataModel<T> delegate, String region) {
+        this.delegate = delegate;
+        this.region = region;
+        this.id = UUID.randomUUID().toString();
+        this.keys = new LinkedHashMap<String, Boolean>(16, 0.75f, true);
+    }
+
+    @Override
+    public List<T> load(int first, int pageSize, final String sortField, final SortOrder sortOrder, final Map<String,Object> filters) {
+        return loadPage(first, pageSize, new PageLoader<T>() {
+
+            public String getKey(int first, int pageSize) {
+                StringBuilder key = new StringBuilder();
+                key.append(first).append(";").append(pageSize).append(";").append(sortField).append(":").append(sortOrder);
+                key.append(getFilterKey(filters));
+
+                return key.toString();
+            }
+
+            public List<T> load(int first, int pageSize) {
+                return delegate.load(first, pageSize, sortField, sortOrder, filters);
+            }
+        }, prefetch);
+    }
+
+    @Override
+    public List<T> load(int first, int pageSize, final List<SortMeta> multiSortMeta, final Map<String,Object> filters) {
+        return loadPage(first, pageSize, new PageLoader<T>() {
+
+            public String getKey(int first, int pageSize) {
+                return getPageKey(first, pageSize, multiSortMeta, filters);
+            }
+
+            public List<T> load(int first, int pageSize) {
+                return delegate.load(first, pageSize, multiSortMeta, filters);
+            }
+        }, prefetch);
+    }
+
+    @Override
+    public List<T> loadKeyset(int first, int pageSize, final List<SortMeta> multiSortMeta, final Map<String,Object> filters, final PageCursor cursor) {
+        //the cursor of the following page is not known yet, so keyset pages are not prefetched
+        return loadPage(first, pageSize, new PageLoader<T>() {
+
+            public String getKey(int first, int pageSize) {
+                return getPageKey(first, pageSize, multiSortMeta, filters) + getCursorKey(cursor);
+            }
+
+            public List<T> load(int first, int pageSize) {
+                return delegate.loadKeyset(first, pageSize, multiSortMeta, filters, cursor);
+            }
+        }, false);
+    }
+
+    /**
+     * Removes all pages and row counts of this model from the cache, e.g. after rows were added, updated or deleted.
+     */
+    public synchronized void invalidate() {
+        CacheProvider cacheProvider = getCacheProvider();
+
+        //pages of running prefetches are loaded from the old data and are not cached anymore
+        generation++;
+        if(prefetches != null) {
+            for(FutureTask<?> task : prefetches.values()) {
+                task.cancel(false);
+            }
+            prefetches.clear();
+        }
+
+        for(String key : keys.keySet()) {
+            removeCachedPage(cacheProvider, key);
+        }
+
+        keys.clear();
+        invalidateRowCount();
+        delegate.invalidateRowCount();
+    }
+
+    @Override
+    public int count(Map<String,Object> filters) {
+        return delegate.count(filters);
+    }
+
+    @Override
+    public boolean isCountAsync() {
+        return delegate.isCountAsync();
+    }
+
+    @Override
+    public boolean isKeysetPaging() {
+        return delegate.isKeysetPaging();
+    }
+
+    @Override
+    public T getRowData(String rowKey) {
+        return delegate.getRowData(rowKey);
+    }
+
+    @Override
+    public Object getRowKey(T object) {
+        return delegate.getRowKey(object);
+    }
+
+    @Override
+    public void setAllRowsSelection(AllRowsSelection allRowsSelection) {
+        super.setAllRowsSelection(allRowsSelection);
+        delegate.setAllRowsSelection(allRowsSelection);
+    }
+
+    @Override
+    public void setPageSize(int pageSize) {
+        super.setPageSize(pageSize);
+        delegate.setPageSize(pageSize);
+    }
+
+    @Override
+    public void setWrappedData(Object list) {
+        super.setWrappedData(list);
+        delegate.setWrappedData(list);
+    }
+
+    public LazyDataModel<T> getDelegate() {
+        return delegate;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * @param timeToLive milliseconds a page is served from the cache, 0 or less to keep pages until they are evicted or invalidated
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize maximum number of pages to cache
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public boolean isPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * @param prefetch whether the page following a loaded page is loaded in the background and cached,
+     * the delegate is then also called on worker threads without a FacesContext
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    protected CacheProvider getCacheProvider() {
+        return RequestContext.getCurrentInstance().getApplicationContext().getCacheProvider();
+    }
+
+    protected ExecutorService getExecutorService() {
+        return RequestContext.getCurrentInstance().getApplicationContext().getExecutorService();
+    }
+
+    private static String getPageKey(int first, int pageSize, List<SortMeta> multiSortMeta, Map<String,Object> filters) {
+        StringBuilder key = new StringBuilder();
+        key.append(first).append(";").append(pageSize);
+        if(multiSortMeta != null) {
+            for(SortMeta sortMeta : multiSortMeta) {
+                key.append(";").append(sortMeta.getSortField()).append(":").append(sortMeta.getSortOrder());
+            }
+        }
+        key.append(getFilterKey(filters));
+
+        return key.toString();
+    }
+
+    private static String getCursorKey(PageCursor cursor) {
+        if(cursor == null) {
+            return "";
+        }
+
+        return ";cursor:" + (cursor.isBackward() ? "backward:" : "forward:") + Arrays.deepToString(cursor.getSortValues()) + ":" + cursor.getRowKey();
+    }
+
+    private List<T> loadPage(int first, int pageSize, PageLoader<T> loader, boolean prefetchNext) {
+        CacheProvider cacheProvider = getCacheProvider();
+        FacesContext context = FacesContext.getCurrentInstance();
+        if(context != null) {
+            sessionEntries = SessionCacheEntries.getInstance(context);
+        }
+        String key = loader.getKey(first, pageSize);
+
+        CachedPage<T> page = getCachedPage(cacheProvider, key);
+        if(page == null && awaitPrefetch(key)) {
+            page = getCachedPage(cacheProvider, key);
+        }
+
+        if(page == null) {
+            synchronized(delegate) {
+                int loadGeneration = getGeneration();
+                List<T> data = loader.load(first, pageSize);
+                page = putCachedPage(cacheProvider, key, data, delegate.getRowCount(), loadGeneration);
+            }
+        }
+
+        if(prefetchNext && page.data != null && page.data.size() >= pageSize && (page.rowCount <= 0 || first + pageSize < page.rowCount)) {
+            prefetch(cacheProvider, first + pageSize, pageSize, loader);
+        }
+
+        return applyPage(page);
+    }
+
+    private void prefetch(final CacheProvider cacheProvider, final int first, final int pageSize, final PageLoader<T> loader) {
+        final String key = loader.getKey(first, pageSize);
+        if(getCachedPage(cacheProvider, key) != null) {
+            return;
+        }
+
+        final int prefetchGeneration = getGeneration();
+        final FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+
+            public void run() {
+                try {
+                    synchronized(delegate) {
+                        if(getGeneration() == prefetchGeneration && getCachedPage(cacheProvider, key) == null) {
+                            List<T> data = loader.load(first, pageSize);
+                            putCachedPage(cacheProvider, key, data, delegate.getRowCount(), prefetchGeneration);
+                        }
+                    }
+                }
+                finally {
+                    removePrefetch(key, prefetchGeneration);
+                }
+            }
+        }, null);
+
+        synchronized(this) {
+            if(generation != prefetchGeneration) {
+                return;
+            }
+
+            if(prefetches == null) {
+                prefetches = new HashMap<String, FutureTask<?>>();
+            }
+            else if(prefetches.containsKey(key)) {
+                return;
+            }
+
+            prefetches.put(key, task);
+        }
+
+        try {
+            getExecutorService().execute(task);
+        }
+        catch(RejectedExecutionException e) {
+            //pool is busy, the page is loaded on demand
+            removePrefetch(key, prefetchGeneration);
+        }
+    }
+
+    /**
+     * Waits for a running prefetch of the page.
+     *
+     * @return true if the page was prefetched
+     */
+    private boolean awaitPrefetch(String key) {
+        FutureTask<?> task;
+        synchronized(this) {
+            task = (prefetches == null) ? null : prefetches.get(key);
+        }
+
+        if(task == null) {
+            return false;
+        }
+
+        try {
+            //loads the page on the request thread if the pool did not start the prefetch yet
+            task.run();
+            task.get();
+
+            return true;
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return false;
+        }
+        catch(CancellationException e) {
+            //model was invalidated
+            return false;
+        }
+        catch(ExecutionException e) {
+            //load again on the request thread to report the failure
+            return false;
+        }
+    }
+
+    private synchronized int getGeneration() {
+        return generation;
+    }
+
+    private synchronized void removePrefetch(String key, int prefetchGeneration) {
+        //a prefetch of the same page started after invalidating is kept
+        if(prefetches != null && generation == prefetchGeneration) {
+            prefetches.remove(key);
+        }
+    }
+
+    private synchronized CachedPage<T> getCachedPage(CacheProvider cacheProvider, String key) {
+        String cacheKey = id + ";" + key;
+        if(!keys.containsKey(cacheKey)) {
+            return null;
+        }
+
+        CachedPage<T> page = (CachedPage<T>) cacheProvider.get(region, cacheKey);
+        if(page == null || (timeToLive > 0 && System.currentTimeMillis() - page.created > timeToLive)) {
+            removeCachedPage(cacheProvider, cacheKey);
+            keys.remove(cacheKey);
+
+            return null;
+        }
+
+        //mark as recently used
+        keys.get(cacheKey);
+
+        return page;
+    }
+
+    /**
+     * @param loadGeneration generation of the model when loading the page was started, pages loaded before the model
+     * was invalidated are returned without caching them
+     */
+    private synchronized CachedPage<T> putCachedPage(CacheProvider cacheProvider, String key, List<T> data, int rowCount, int loadGeneration) {
+        String cacheKey = id + ";" + key;
+        CachedPage<T> page = new CachedPage<T>(data, rowCount, System.currentTimeMillis());
+        if(loadGeneration != generation) {
+            return page;
+        }
+
+        cacheProvider.put(region, cacheKey, page);
+        keys.put(cacheKey, Boolean.TRUE);
+
+        SessionCacheEntries entries = sessionEntries;
+        if(entries != null) {
+            entries.add(region, cacheKey);
+        }
+
+        for(Iterator<String> it = keys.keySet().iterator(); keys.size() > maxSize && it.hasNext();) {
+            removeCachedPage(cacheProvider, it.next());
+            it.remove();
+        }
+
+        ExpiringPages expiringPages = getExpiringPages(cacheProvider);
+        if(timeToLive > 0) {
+            expiringPages.add(region, cacheKey, page.created + timeToLive);
+        }
+        expiringPages.evict(cacheProvider, page.created);
+
+        return page;
+    }
+
+    private void removeCachedPage(CacheProvider cacheProvider, String cacheKey) {
+        cacheProvider.remove(region, cacheKey);
+
+        SessionCacheEntries entries = sessionEntries;
+        if(entries != null) {
+            entries.remove(region, cacheKey);
+        }
+    }
+
+    private static ExpiringPages getExpiringPages(CacheProvider cacheProvider) {
+        synchronized(EXPIRING_PAGES) {
+            ExpiringPages expiringPages = EXPIRING_PAGES.get(cacheProvider);
+            if(expiringPages == null) {
+                expiringPages = new ExpiringPages();
+                EXPIRING_PAGES.put(cacheProvider, expiringPages);
+            }
+
+            return expiringPages;
+        }
+    }
+
+    private List<T> applyPage(CachedPage<T> page) {
+        setRowCount(page.rowCount);
+        delegate.setRowCount(page.rowCount);
+
+        return page.data;
+    }
+
+    private interface PageLoader<T> {
+
+        String getKey(int first, int pageSize);
+
+        List<T> load(int first, int pageSize);
+    }
+
+    /**
+     * Expiration times of the pages written by all models to a cache provider, pages of models that are not used anymore
+     * are never read again and are evicted by the writes of other models.
+     */
+    private static class ExpiringPages {
+
+        private static final long EVICTION_INTERVAL = 1000;
+
+        private final Map<String,String> regions = new HashMap<String, String>();
+        private final Map<String,Long> expirations = new HashMap<String, Long>();
+        private long nextEviction;
+
+        synchronized void add(String region, String key, long expiration) {
+            String entryKey = region + ";" + key;
+            regions.put(entryKey, region);
+            expirations.put(entryKey, expiration);
+        }
+
+        synchronized void evict(CacheProvider cacheProvider, long now) {
+            if(now < nextEviction) {
+                return;
+            }
+
+            nextEviction = now + EVICTION_INTERVAL;
+
+            for(Iterator<Map.Entry<String,Long>> it = expirations.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<String,Long> entry = it.next();
+                if(entry.getValue() <= now) {
+                    String entryKey = entry.getKey();
+                    String region = regions.remove(entryKey);
+                    cacheProvider.remove(region, entryKey.substring(region.length() + 1));
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static class CachedPage<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> data;
+        private final int rowCount;
+        private final long created;
+
+        CachedPage(List<T> data, int rowCount, long created) {
+            this.data = data;
+            this.rowCount = rowCount;
+            this.created = created;
+        }
+    }
+}
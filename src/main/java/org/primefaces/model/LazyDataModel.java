@@ -16,8 +16,12 @@
 package org.primefaces.model;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import javax.faces.model.DataModel;
 import javax.faces.model.DataModelEvent;
@@ -28,6 +32,8 @@ import javax.faces.model.DataModelListener;
  */
 public abstract class LazyDataModel<T> extends DataModel<T> implements SelectableDataModel<T>, Serializable {
 
+    private static final int MAX_CACHED_ROW_COUNTS = 16;
+
 	private int rowIndex = -1;
 
 	private int rowCount;
@@ -36,6 +42,14 @@ public abstract class LazyDataModel<T> extends DataModel<T> implements Selectabl
 
 	private List<T> data;
 
+    private AllRowsSelection allRowsSelection;
+
+    private boolean countAsync;
+
+    private boolean keysetPaging;
+
+    private final Map<String,Integer> rowCounts = new LinkedHashMap<String, Integer>(16, 0.75f, true);
+
 	public LazyDataModel() {
 		super();
 	}
@@ -104,6 +118,17 @@ public abstract class LazyDataModel<T> extends DataModel<T> implements Selectabl
         this.rowCount = rowCount;
     }
 
+    /**
+     * @return the selection of all rows matching the filters when the user selected all rows of a lazy DataTable, otherwise null
+     */
+    public AllRowsSelection getAllRowsSelection() {
+        return allRowsSelection;
+    }
+
+    public void setAllRowsSelection(AllRowsSelection allRowsSelection) {
+        this.allRowsSelection = allRowsSelection;
+    }
+
     public List<T> load(int first, int pageSize, String sortField, SortOrder sortOrder, Map<String,Object> filters) {
         throw new UnsupportedOperationException("Lazy loading is not implemented.");
     }
@@ -112,6 +137,110 @@ public abstract class LazyDataModel<T> extends DataModel<T> implements Selectabl
         throw new UnsupportedOperationException("Lazy loading is not implemented.");
     }
 
+    /**
+     * Loads a page with keyset (seek) paging, used by DataTable instead of the offset based load methods if {@link #isKeysetPaging()}.
+     * When a cursor is given, the page starts right after it (or ends right before it if {@link PageCursor#isBackward()})
+     * in the order of the sort metadata and the row key, so the query can seek to it instead of skipping <code>first</code> rows.
+     * Rows are returned in display order, the cursor is null when the page can't be reached by seeking e.g. the first page or a jump.
+     *
+     * @param first index of the first row of the page, to be used when there is no cursor
+     * @param pageSize number of rows
+     * @param multiSortMeta sort columns, a single element in single sort mode and empty when the table is not sorted
+     * @param filters filters of the table
+     * @param cursor position of the page or null
+     */
+    public List<T> loadKeyset(int first, int pageSize, List<SortMeta> multiSortMeta, Map<String,Object> filters, PageCursor cursor) {
+        throw new UnsupportedOperationException("Keyset paging is not implemented.");
+    }
+
+    public boolean isKeysetPaging() {
+        return keysetPaging;
+    }
+
+    /**
+     * @param keysetPaging whether DataTable loads pages with {@link #loadKeyset(int, int, java.util.List, java.util.Map, org.primefaces.model.PageCursor)},
+     * requires {@link #getRowKey(java.lang.Object)}
+     */
+    public void setKeysetPaging(boolean keysetPaging) {
+        this.keysetPaging = keysetPaging;
+    }
+
+    /**
+     * Returns the number of rows matching the filters, counted by {@link #countRows(java.util.Map)} once per filters.
+     * Counts are cached until {@link #invalidateRowCount()} is called, changes of the underlying data are not detected,
+     * so the model has to be invalidated after rows were added or deleted.
+     *
+     * @return the number of rows or -1 if countRows is not implemented
+     */
+    public int count(Map<String,Object> filters) {
+        String key = getFilterKey(filters);
+
+        synchronized(rowCounts) {
+            Integer rowCount = rowCounts.get(key);
+            if(rowCount != null) {
+                return rowCount;
+            }
+        }
+
+        int rowCount = countRows(filters);
+
+        if(rowCount >= 0) {
+            synchronized(rowCounts) {
+                rowCounts.put(key, rowCount);
+
+                for(Iterator<String> it = rowCounts.keySet().iterator(); rowCounts.size() > MAX_CACHED_ROW_COUNTS && it.hasNext();) {
+                    it.next();
+                    it.remove();
+                }
+            }
+        }
+
+        return rowCount;
+    }
+
+    /**
+     * Counts the rows matching the filters, implement it to keep the count query out of load.
+     * DataTable only requests counts of filters not counted yet, see {@link #count(java.util.Map)}, and counts may run
+     * on a worker thread without a FacesContext if {@link #isCountAsync()}.
+     *
+     * @return the number of rows or -1 if load sets the row count
+     */
+    protected int countRows(Map<String,Object> filters) {
+        return -1;
+    }
+
+    /**
+     * Drops the cached row counts, e.g. after rows were added or deleted.
+     */
+    public void invalidateRowCount() {
+        synchronized(rowCounts) {
+            rowCounts.clear();
+        }
+    }
+
+    public boolean isCountAsync() {
+        return countAsync;
+    }
+
+    /**
+     * @param countAsync whether count may run on the application thread pool while the page is loaded
+     */
+    public void setCountAsync(boolean countAsync) {
+        this.countAsync = countAsync;
+    }
+
+    static String getFilterKey(Map<String,Object> filters) {
+        StringBuilder key = new StringBuilder();
+
+        if(filters != null) {
+            for(Map.Entry<String,Object> filter : new TreeMap<String,Object>(filters).entrySet()) {
+                key.append(";").append(filter.getKey()).append("=").append(Arrays.deepToString(new Object[]{filter.getValue()}));
+            }
+        }
+
+        return key.toString();
+    }
+
     public T getRowData(String rowKey) {
         throw new UnsupportedOperationException("getRowData(String rowKey) must be implemented when basic rowKey algorithm is not used.");
     }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model;
+
+import java.io.Serializable;
+
+/**
+ * Position of a page in keyset (seek) paging, the sort key values and row key of the row next to the requested page.
+ * For forward navigation these are the values of the last row of the previous page and rows after it are requested,
+ * for backward navigation the values of the first row of the following page and rows before it are requested.
+ */
+public class PageCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] sortValues;
+
+    private final Object rowKey;
+
+    private final boolean backward;
+
+    public PageCursor(Object[] sortValues, Object rowKey, boolean backward) {
+        this.sortValues = sortValues;
+        this.rowKey = rowKey;
+        this.backward = backward;
+    }
+
+    /**
+     * @return values of the sort columns in the order of the sort metadata
+     */
+    public Object[] getSortValues() {
+        return sortValues;
+    }
+
+    /**
+     * @return row key of the row, used to break ties of equal sort values
+     */
+    public Object getRowKey() {
+        return rowKey;
+    }
+
+    /**
+     * @return true if the rows before the cursor are requested
+     */
+    public boolean isBackward() {
+        return backward;
+    }
+}
@@ -15,22 +15,16 @@
  */
 package org.primefaces.model.filter;
 
-import java.util.Locale;
-import org.primefaces.util.Constants;
+public class ContainsFilterConstraint extends StringFilterConstraint {
 
-public class ContainsFilterConstraint implements FilterConstraint {
-
-    public boolean applies(Object value, Object filter, Locale locale) {
-        String filterText = (filter == null) ? null : filter.toString().trim().toLowerCase(locale);
-        
-        if(filterText == null || filterText.equals(Constants.EMPTY_STRING)) {
-            return true;
-        }
-                
-        if(value == null) {
-            return false;
+    @Override
+    protected boolean matches(String value, String filterText) {
+        for(int i = 0; i <= value.length() - filterText.length(); i++) {
+            if(regionMatches(value, i, filterText)) {
+                return true;
+            }
         }
-        
-        return value.toString().toLowerCase(locale).contains(filterText);
+
+        return false;
     }
 }
\ No newline at end of file
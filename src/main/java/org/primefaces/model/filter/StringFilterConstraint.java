@@ -0,0 +1,112 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model.filter;
+
+import java.util.Locale;
+import org.primefaces.util.Constants;
+
+/**
+ * Base class of the case insensitive text constraints.
+ * The filter text is trimmed and lowercased once in {@link #prepare(java.lang.Object, java.util.Locale)},
+ * values are compared char by char without creating lowercase copies.
+ */
+public abstract class StringFilterConstraint implements FilterConstraint {
+
+    private static final PreparedFilterConstraint MATCH_ALL = new PreparedFilterConstraint() {
+
+        public boolean applies(Object value) {
+            return true;
+        }
+    };
+
+    public boolean applies(Object value, Object filter, Locale locale) {
+        return prepare(filter, locale).applies(value);
+    }
+
+    public PreparedFilterConstraint prepare(Object filter, final Locale locale) {
+        final String filterText = (filter == null) ? null : filter.toString().trim().toLowerCase(locale);
+
+        if(filterText == null || filterText.equals(Constants.EMPTY_STRING)) {
+            return MATCH_ALL;
+        }
+
+        final boolean localeSensitive = isLocaleSensitive(locale);
+
+        return new PreparedFilterConstraint() {
+
+            public boolean applies(Object value) {
+                if(value == null) {
+                    return false;
+                }
+
+                String valueText = value.toString();
+                if(localeSensitive || hasSpecialCasing(valueText)) {
+                    valueText = valueText.toLowerCase(locale);
+                }
+
+                return matches(valueText, filterText);
+            }
+        };
+    }
+
+    /**
+     * @param value the value text, not necessarily lowercased
+     * @param filterText the trimmed and lowercased filter text, never empty
+     */
+    protected abstract boolean matches(String value, String filterText);
+
+    /**
+     * Compares the region of value starting at offset with the lowercased filter text, ignoring the case of value.
+     */
+    protected static boolean regionMatches(String value, int offset, String filterText) {
+        int length = filterText.length();
+        if(offset < 0 || offset + length > value.length()) {
+            return false;
+        }
+
+        for(int i = 0; i < length; i++) {
+            char c = value.charAt(offset + i);
+            if(c != filterText.charAt(i) && Character.toLowerCase(c) != filterText.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * String.toLowerCase(Locale) applies additional rules for these languages, e.g. dotless i in turkish.
+     */
+    private static boolean isLocaleSensitive(Locale locale) {
+        String language = locale.getLanguage();
+
+        return language.equals("tr") || language.equals("az") || language.equals("lt");
+    }
+
+    /**
+     * Chars whose lowercase form depends on context or changes the length of the text.
+     */
+    private static boolean hasSpecialCasing(String value) {
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if(c == '\u0130' || c == '\u03A3' || Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
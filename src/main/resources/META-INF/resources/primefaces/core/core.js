@@ -429,6 +429,52 @@
             }
         },
 
+        /**
+         *  Polls the progress of a background export started by p:dataExporter with async enabled and downloads the file when done.
+         *  cfg: onprogress(progress, job), oncomplete(job), onerror(job), interval in milliseconds
+         */
+        monitorExport: function(url, cfg) {
+            cfg = cfg||{};
+            if(!url) {
+                return;
+            }
+
+            var poll = function() {
+                $.ajax({
+                    url: url + '&status=true',
+                    dataType: 'json',
+                    cache: false
+                })
+                .done(function(job) {
+                    if(cfg.onprogress) {
+                        cfg.onprogress.call(this, job.progress, job);
+                    }
+
+                    if(job.status === 'done') {
+                        if(cfg.oncomplete) {
+                            cfg.oncomplete.call(this, job);
+                        }
+                        window.location.href = url;
+                    }
+                    else if(job.status === 'failed') {
+                        if(cfg.onerror) {
+                            cfg.onerror.call(this, job);
+                        }
+                    }
+                    else {
+                        setTimeout(poll, cfg.interval||1000);
+                    }
+                })
+                .fail(function() {
+                    if(cfg.onerror) {
+                        cfg.onerror.call(this);
+                    }
+                });
+            };
+
+            poll();
+        },
+
         /**
          *  Scrolls to a component with given client id
          */
@@ -103,6 +103,11 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
         if(this.cfg.reflow) {
             this.initReflow();
         }
+        
+        if(this.cfg.virtualScroll) {
+            this.updateVirtualScroll();
+            this.checkVirtualScroll();
+        }
     },
  
     /**
@@ -840,6 +845,10 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
         }
         
         this.cloneHead();
+        
+        if(this.cfg.virtualScroll) {
+            this.updateVirtualScroll();
+        }
               
         this.restoreScrollState();
 
@@ -856,6 +865,13 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
             $this.scrollHeaderBox.css('margin-left', -scrollLeft);
             $this.scrollFooterBox.css('margin-left', -scrollLeft);
 
+            if($this.cfg.virtualScroll) {
+                clearTimeout($this.virtualScrollTimeout);
+                $this.virtualScrollTimeout = setTimeout(function() {
+                    $this.checkVirtualScroll();
+                }, 150);
+            }
+
             if($this.shouldLiveScroll) {
                 var scrollTop = Math.ceil(this.scrollTop),
                 scrollHeight = this.scrollHeight,
@@ -1094,6 +1110,101 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
         PrimeFaces.ajax.Request.handle(options);
     },
     
+    /**
+     * Sizes the spacer rows of the virtual scroll window and reads the window from the rendered rows
+     */
+    updateVirtualScroll: function() {
+        var rows = this.tbody.children('tr[data-ri]'),
+        spacers = this.tbody.children('tr.ui-datatable-virtualscroll-spacer');
+        
+        if(!this.virtualRowHeight && rows.length) {
+            this.virtualRowHeight = rows.eq(0).outerHeight();
+        }
+        
+        this.scrollOffset = rows.length ? parseInt(rows.eq(0).attr('data-ri')) : 0;
+        this.virtualWindowSize = rows.length;
+        this.cfg.scrollLimit = this.virtualWindowSize;
+        
+        var $this = this;
+        spacers.each(function() {
+            var spacer = $(this),
+            spacerRows = parseInt(spacer.attr('data-rows'));
+            
+            $this.cfg.scrollLimit += spacerRows;
+            spacer.children('td').css('height', (spacerRows * ($this.virtualRowHeight||0)) + 'px');
+        });
+    },
+    
+    /**
+     * Scrolls back to the first row as sorting and filtering render the window from the first row
+     */
+    resetVirtualScroll: function() {
+        if(this.cfg.virtualScroll) {
+            this.scrollOffset = 0;
+            this.scrollBody.scrollTop(0);
+        }
+    },
+    
+    /**
+     * Loads a new window if the visible rows are not rendered
+     */
+    checkVirtualScroll: function() {
+        if(this.virtualScrollActive || !this.virtualRowHeight) {
+            return;
+        }
+        
+        var firstVisible = Math.floor(this.scrollBody.scrollTop() / this.virtualRowHeight),
+        visibleRows = Math.ceil(this.scrollBody.height() / this.virtualRowHeight),
+        lastVisible = Math.min(firstVisible + visibleRows, this.cfg.scrollLimit);
+        
+        if(firstVisible >= this.scrollOffset && lastVisible <= (this.scrollOffset + this.virtualWindowSize)) {
+            return;
+        }
+        
+        //center the window around the viewport
+        var offset = firstVisible - Math.floor((this.cfg.scrollStep - visibleRows) / 2);
+        offset = Math.max(0, Math.min(offset, this.cfg.scrollLimit - this.cfg.scrollStep));
+        
+        if(offset !== this.scrollOffset) {
+            this.loadVirtualRows(offset);
+        }
+    },
+    
+    /**
+     * Replaces the rendered rows with the window starting at the given offset
+     */
+    loadVirtualRows: function(offset) {
+        this.virtualScrollActive = true;
+        
+        var $this = this,
+        options = {
+            source: this.id,
+            process: this.id,
+            update: this.id,
+            formId: this.cfg.formId,
+            params: [{name: this.id + '_scrolling', value: true},
+                            {name: this.id + '_skipChildren', value: true},
+                            {name: this.id + '_scrollOffset', value: offset},
+                            {name: this.id + '_encodeFeature', value: true}],
+            onsuccess: function(responseXML, status, xhr) {
+                PrimeFaces.ajax.Response.handle(responseXML, status, xhr, {
+                    widget: $this,
+                    handle: function(content) {
+                        this.virtualScrollActive = false;
+                        this.updateData(content, true);
+                    }
+                });
+
+                return true;
+            },
+            oncomplete: function() {
+                $this.virtualScrollActive = false;
+            }
+        };
+
+        PrimeFaces.ajax.Request.handle(options);
+    },
+    
     /**
      * Ajax pagination
      */
@@ -1196,6 +1307,7 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
                 PrimeFaces.ajax.Response.handle(responseXML, status, xhr, {
                         widget: $this,
                         handle: function(content) {
+                            this.resetVirtualScroll();
                             this.updateData(content);
                         }
                     });
@@ -1296,12 +1408,19 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
                 PrimeFaces.ajax.Response.handle(responseXML, status, xhr, {
                         widget: $this,
                         handle: function(content) {
+                            this.resetVirtualScroll();
                             this.updateData(content);
 
                             if(this.cfg.scrollable) {
                                 this.alignScrollBody();
                             }
 
+                            //symbolic selection of all rows is cleared on the server when filters change
+                            if(this.cfg.allRowsSelection && this.isAllSelected()) {
+                                this.selection = [];
+                                this.writeSelections();
+                            }
+
                             if(this.isCheckboxSelectionEnabled()) {
                                 this.updateHeaderCheckbox();
                             }
@@ -2611,17 +2730,29 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
     /**
      * Remove given rowIndex from selection
      */
-    removeSelection: function(rowIndex) {        
-        this.selection = $.grep(this.selection, function(value) {
-            return value != rowIndex;
-        });
+    removeSelection: function(rowIndex) {
+        if(this.isAllSelected()) {
+            if(!PrimeFaces.inArray(this.selection, rowIndex)) {
+                this.selection.push(rowIndex);
+            }
+        }
+        else {
+            this.selection = $.grep(this.selection, function(value) {
+                return value != rowIndex;
+            });
+        }
     },
     
     /**
      * Adds given rowKey to selection if it doesn't exist already
      */
     addSelection: function(rowKey) {
-        if(!this.isSelected(rowKey)) {
+        if(this.isAllSelected()) {
+            this.selection = $.grep(this.selection, function(value, index) {
+                return index === 0 || value != rowKey;
+            });
+        }
+        else if(!this.isSelected(rowKey)) {
             this.selection.push(rowKey);
         }
     },
@@ -2630,7 +2761,17 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
      * Finds if given rowKey is in selection
      */
     isSelected: function(rowKey) {
-        return PrimeFaces.inArray(this.selection, rowKey);
+        if(this.isAllSelected())
+            return !PrimeFaces.inArray(this.selection.slice(1), rowKey);
+        else
+            return PrimeFaces.inArray(this.selection, rowKey);
+    },
+    
+    /**
+     * Returns true if the selection is kept as all rows except the keys following @all
+     */
+    isAllSelected: function() {
+        return this.selection.length > 0 && this.selection[0] === '@all';
     },
     
     getRowMeta: function(row) {
@@ -2895,7 +3036,17 @@ PrimeFaces.widget.DataTable = PrimeFaces.widget.DeferredWidget.extend({
     },
     
     getSelectedRowsCount: function() {
-        return this.isSelectionEnabled() ? this.selection.length : 0;
+        if(!this.isSelectionEnabled()) {
+            return 0;
+        }
+        
+        if(this.isAllSelected()) {
+            var rowCount = this.paginator ? this.paginator.cfg.rowCount : this.tbody.children('tr.ui-datatable-selectable').length;
+            
+            return rowCount - (this.selection.length - 1);
+        }
+        
+        return this.selection.length;
     },
     
     updateHeaderCheckbox: function() {
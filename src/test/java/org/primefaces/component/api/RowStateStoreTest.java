@@ -0,0 +1,82 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RowStateStoreTest {
+
+    @Test
+    public void shouldCreateRowsWithInitialState() {
+        RowStateStore store = new RowStateStore(2, 0);
+        Assert.assertEquals(-1, store.getSlot(5));
+
+        int slot = store.createSlot(5);
+        Assert.assertEquals(slot, store.getSlot(5));
+        Assert.assertNull(store.getValue(slot, 1));
+        Assert.assertTrue(store.is(slot, 1, RowStateStore.VALID));
+        Assert.assertFalse(store.is(slot, 1, RowStateStore.LOCAL_VALUE_SET));
+    }
+
+    @Test
+    public void shouldKeepStatesWhenRowsAreInsertedAndGrown() {
+        RowStateStore store = new RowStateStore(2, 0);
+        for(int row = 0; row < 40; row += 2) {
+            int slot = store.createSlot(row);
+            store.set(slot, 1, "value" + row, null, RowStateStore.toFlags(true, true, false));
+        }
+
+        //insert between existing rows
+        int slot = store.createSlot(7);
+        store.set(slot, 0, null, "submitted", RowStateStore.toFlags(false, false, false));
+
+        Assert.assertEquals(21, store.getRowCount());
+        Assert.assertEquals("value6", store.getValue(store.getSlot(6), 1));
+        Assert.assertEquals("value8", store.getValue(store.getSlot(8), 1));
+        Assert.assertEquals("value38", store.getValue(store.getSlot(38), 1));
+        Assert.assertEquals("submitted", store.getSubmittedValue(store.getSlot(7), 0));
+        Assert.assertFalse(store.is(store.getSlot(7), 0, RowStateStore.VALID));
+        Assert.assertTrue(store.is(store.getSlot(8), 1, RowStateStore.LOCAL_VALUE_SET));
+        Assert.assertEquals(-1, store.getSlot(9));
+    }
+
+    @Test
+    public void shouldSerializeUsedRowsOnly() throws Exception {
+        RowStateStore store = new RowStateStore(1, 42);
+        store.set(store.createSlot(-1), 0, "header", null, RowStateStore.toFlags(true, true, false));
+        store.set(store.createSlot(3), 0, 3, null, RowStateStore.toFlags(true, true, false));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(store);
+        out.close();
+        RowStateStore restored = (RowStateStore) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        Assert.assertTrue(restored.isCompatible(1, 42));
+        Assert.assertFalse(restored.isCompatible(2, 42));
+        Assert.assertEquals("header", restored.getValue(restored.getSlot(-1), 0));
+        Assert.assertEquals(3, restored.getValue(restored.getSlot(3), 0));
+
+        //still writable after trimming
+        restored.set(restored.createSlot(10), 0, "new", null, RowStateStore.VALID);
+        Assert.assertEquals("new", restored.getValue(restored.getSlot(10), 0));
+    }
+}
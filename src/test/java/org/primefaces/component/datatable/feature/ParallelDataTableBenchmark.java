@@ -0,0 +1,199 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.datatable.feature;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.primefaces.el.PropertyPathAccessor;
+import org.primefaces.model.filter.ContainsFilterConstraint;
+import org.primefaces.model.filter.PreparedFilterConstraint;
+
+/**
+ * Compares the parallel filter and sort paths of DataTable with the sequential ones on the same rows.
+ * Filtering tests a compiled property path with a prepared contains constraint per row like a compiled RowMatcher,
+ * sorting compares pre-extracted collation keys like SortFeature.
+ *
+ * Not run by the test suite, start it with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.primefaces.component.datatable.feature.ParallelDataTableBenchmark</code>,
+ * the system properties <code>rows</code>, <code>threads</code> and <code>iterations</code> change the defaults.
+ */
+public class ParallelDataTableBenchmark {
+
+    private static final int MIN_CHUNK_SIZE = 1000;
+
+    private static final String[] BRANDS = {"BMW", "Mercedes", "Volvo", "Audi", "Renault", "Fiat", "Volkswagen", "Honda", "Jaguar", "Ford"};
+
+    public static class Car {
+
+        private final String brand;
+        private final String color;
+
+        public Car(String brand, String color) {
+            this.brand = brand;
+            this.color = color;
+        }
+
+        public String getBrand() {
+            return brand;
+        }
+
+        public String getColor() {
+            return color;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("rows", 200000);
+        int threads = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+        int iterations = Integer.getInteger("iterations", 20);
+
+        List<Car> cars = createCars(rows);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            System.out.println(rows + " rows, " + threads + " threads, " + iterations + " iterations");
+
+            report("filter sequential", measureFilter(null, threads, cars, iterations));
+            report("filter parallel", measureFilter(executor, threads, cars, iterations));
+            report("sort sequential", measureSort(null, threads, cars, iterations));
+            report("sort parallel", measureSort(executor, threads, cars, iterations));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Car> createCars(int rows) {
+        Random random = new Random(42);
+        List<Car> cars = new ArrayList<Car>(rows);
+
+        for(int i = 0; i < rows; i++) {
+            cars.add(new Car(BRANDS[random.nextInt(BRANDS.length)], Integer.toHexString(random.nextInt())));
+        }
+
+        return cars;
+    }
+
+    /**
+     * @return the duration of each iteration in nanoseconds, warmup iterations excluded
+     */
+    private static long[] measureFilter(ExecutorService executor, int threads, List<Car> cars, int iterations) {
+        PropertyPathAccessor accessor = PropertyPathAccessor.compile("#{car.brand}", "car");
+        PreparedFilterConstraint constraint = new ContainsFilterConstraint().prepare("ol", Locale.ENGLISH);
+        long[] durations = new long[iterations];
+
+        for(int i = -iterations; i < iterations; i++) {
+            long start = System.nanoTime();
+            byte[] results = new byte[cars.size()];
+
+            if(executor == null) {
+                new FilterTask(cars, accessor, constraint, results, 0, cars.size()).run();
+            }
+            else {
+                int chunks = Math.max(1, Math.min(threads * 4, cars.size() / MIN_CHUNK_SIZE));
+                int chunkSize = (cars.size() + chunks - 1) / chunks;
+                List<FilterTask> tasks = new ArrayList<FilterTask>(chunks);
+
+                for(int from = 0; from < cars.size(); from += chunkSize) {
+                    tasks.add(new FilterTask(cars, accessor, constraint, results, from, Math.min(cars.size(), from + chunkSize)));
+                }
+
+                ParallelTasks.run(executor, tasks);
+            }
+
+            if(i >= 0) {
+                durations[i] = System.nanoTime() - start;
+            }
+        }
+
+        return durations;
+    }
+
+    private static long[] measureSort(ExecutorService executor, int threads, List<Car> cars, int iterations) {
+        Collator collator = Collator.getInstance(Locale.ENGLISH);
+        CollationKey[] keys = new CollationKey[cars.size()];
+        for(int i = 0; i < keys.length; i++) {
+            keys[i] = collator.getCollationKey(cars.get(i).getColor());
+        }
+
+        Comparator<CollationKey> comparator = new Comparator<CollationKey>() {
+
+            public int compare(CollationKey key1, CollationKey key2) {
+                return key1.compareTo(key2);
+            }
+        };
+        long[] durations = new long[iterations];
+
+        for(int i = -iterations; i < iterations; i++) {
+            CollationKey[] entries = keys.clone();
+            long start = System.nanoTime();
+
+            if(executor == null) {
+                Arrays.sort(entries, comparator);
+            }
+            else {
+                int chunks = Math.max(1, Math.min(threads, entries.length / MIN_CHUNK_SIZE));
+                SortFeature.parallelSort(executor, chunks, entries, comparator);
+            }
+
+            if(i >= 0) {
+                durations[i] = System.nanoTime() - start;
+            }
+        }
+
+        return durations;
+    }
+
+    private static void report(String name, long[] durations) {
+        Arrays.sort(durations);
+        long median = durations[durations.length / 2];
+
+        System.out.println(name + ": median " + (median / 1000000.0) + " ms, min " + (durations[0] / 1000000.0) + " ms");
+    }
+
+    private static class FilterTask implements Runnable {
+
+        private final List<Car> cars;
+        private final PropertyPathAccessor accessor;
+        private final PreparedFilterConstraint constraint;
+        private final byte[] results;
+        private final int from;
+        private final int to;
+
+        FilterTask(List<Car> cars, PropertyPathAccessor accessor, PreparedFilterConstraint constraint, byte[] results, int from, int to) {
+            this.cars = cars;
+            this.accessor = accessor;
+            this.constraint = constraint;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        public void run() {
+            for(int i = from; i < to; i++) {
+                results[i] = constraint.applies(accessor.getValue(cars.get(i))) ? RowMatcher.MATCH : RowMatcher.NO_MATCH;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.datatable.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelTasksTest {
+
+    @Test
+    public void shouldRunQueuedTasksOnCallingThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+
+        try {
+            //occupies the only worker like a long running task
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        release.await();
+                    }
+                    catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for(int i = 0; i < 3; i++) {
+                tasks.add(new Runnable() {
+                    public void run() {
+                        runs.incrementAndGet();
+                    }
+                });
+            }
+
+            ParallelTasks.run(executor, tasks);
+            Assert.assertEquals(3, runs.get());
+        }
+        finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
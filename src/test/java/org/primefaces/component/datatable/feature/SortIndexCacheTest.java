@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.datatable.feature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortIndexCacheTest {
+
+    private static final int[] DISTINCT = new int[] {0, 1, 2};
+
+    @Test
+    public void shouldRestoreCachedOrder() {
+        List<String> data = new ArrayList<String>(Arrays.asList("b", "c", "a"));
+        SortIndexCache cache = new SortIndexCache();
+
+        Assert.assertFalse(cache.restore(data, null, "asc", "desc"));
+        Collections.sort(data);
+        cache.store(data, null, "asc", DISTINCT);
+
+        Collections.shuffle(data);
+        Assert.assertTrue(cache.restore(data, null, "asc", "desc"));
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), data);
+    }
+
+    @Test
+    public void shouldNotRestoreOtherSortState() {
+        List<String> data = new ArrayList<String>(Arrays.asList("b", "c", "a"));
+        SortIndexCache cache = new SortIndexCache();
+
+        cache.restore(data, null, "asc", "desc");
+        Collections.sort(data);
+        cache.store(data, null, "asc", DISTINCT);
+
+        Assert.assertFalse(cache.restore(data, null, "other:asc", "other:desc"));
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), data);
+    }
+
+    @Test
+    public void shouldRestoreReversedOrder() {
+        List<String> data = new ArrayList<String>(Arrays.asList("b", "c", "a"));
+        SortIndexCache cache = new SortIndexCache();
+
+        cache.restore(data, null, "asc", "desc");
+        Collections.sort(data);
+        cache.store(data, null, "asc", DISTINCT);
+
+        Assert.assertTrue(cache.restore(data, null, "desc", "asc"));
+        Assert.assertEquals(Arrays.asList("c", "b", "a"), data);
+
+        Assert.assertTrue(cache.restore(data, null, "asc", "desc"));
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), data);
+    }
+
+    @Test
+    public void shouldKeepOrderOfEqualKeysWhenReversed() {
+        //sorted by the first character only, a1/a2 and b1/b2 have equal keys
+        List<String> data = new ArrayList<String>(Arrays.asList("a1", "a2", "b1", "b2", "c1"));
+        SortIndexCache cache = new SortIndexCache();
+
+        cache.restore(data, null, "asc", "desc");
+        cache.store(data, null, "asc", new int[] {0, 2, 4});
+
+        Assert.assertTrue(cache.restore(data, null, "desc", "asc"));
+        Assert.assertEquals(Arrays.asList("c1", "b1", "b2", "a1", "a2"), data);
+    }
+
+    @Test
+    public void shouldNotOverwriteReplacedRows() {
+        List<String> data = new ArrayList<String>(Arrays.asList("b", "c", "a"));
+        SortIndexCache cache = new SortIndexCache();
+
+        cache.restore(data, null, "asc", "desc");
+        Collections.sort(data);
+        cache.store(data, null, "asc", DISTINCT);
+
+        String merged = new String("b");
+        data.set(0, "c");
+        data.set(1, merged);
+        data.set(2, "a");
+        Assert.assertFalse(cache.restore(data, null, "asc", "desc"));
+        Assert.assertSame(merged, data.get(1));
+    }
+
+    @Test
+    public void shouldInvalidateOnDataChange() {
+        List<String> data = new ArrayList<String>(Arrays.asList("b", "c", "a"));
+        SortIndexCache cache = new SortIndexCache();
+
+        cache.restore(data, 1, "asc", "desc");
+        Collections.sort(data);
+        cache.store(data, 1, "asc", DISTINCT);
+
+        Assert.assertFalse(cache.restore(data, 2, "asc", "desc"));
+        Assert.assertFalse(cache.restore(new ArrayList<String>(data), 2, "asc", "desc"));
+
+        data.add("d");
+        Assert.assertFalse(cache.restore(data, 2, "asc", "desc"));
+    }
+}
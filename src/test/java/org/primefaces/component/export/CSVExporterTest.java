@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.export;
+
+import java.io.StringWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CSVExporterTest {
+
+    private String quote(String value) throws Exception {
+        StringWriter writer = new StringWriter();
+        new CSVExporter().addColumnValue(writer, value);
+
+        return writer.toString();
+    }
+
+    @Test
+    public void shouldQuoteValues() throws Exception {
+        Assert.assertEquals("\"\"", quote(null));
+        Assert.assertEquals("\"\"", quote(""));
+        Assert.assertEquals("\"BMW, Audi\"", quote("BMW, Audi"));
+    }
+
+    @Test
+    public void shouldEscapeDoubleQuotes() throws Exception {
+        Assert.assertEquals("\"\"\"\"", quote("\""));
+        Assert.assertEquals("\"a \"\"b\"\" c\"", quote("a \"b\" c"));
+        Assert.assertEquals("\"\"\"\"\"x\"", quote("\"\"x"));
+    }
+}
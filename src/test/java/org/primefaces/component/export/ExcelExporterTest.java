@@ -0,0 +1,78 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.component.export;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIOutput;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExcelExporterTest {
+
+    private List<UIComponent> outputs(Object... values) {
+        List<UIComponent> components = new ArrayList<UIComponent>();
+        for(Object value : values) {
+            UIOutput output = new UIOutput();
+            output.setValue(value);
+            components.add(output);
+        }
+
+        return components;
+    }
+
+    @Test
+    public void shouldWriteNativeCellValues() {
+        ExcelExporter exporter = new ExcelExporter();
+        Workbook workbook = new HSSFWorkbook();
+        Row row = workbook.createSheet("test").createRow(0);
+        Date date = new Date(0);
+
+        Cell number = row.createCell(0);
+        Assert.assertTrue(exporter.addTypedColumnValue(number, outputs(Integer.valueOf(42))));
+        Assert.assertEquals(Cell.CELL_TYPE_NUMERIC, number.getCellType());
+        Assert.assertEquals(42d, number.getNumericCellValue(), 0);
+
+        Cell dateCell = row.createCell(1);
+        Assert.assertTrue(exporter.addTypedColumnValue(dateCell, outputs(date)));
+        Assert.assertEquals(date, dateCell.getDateCellValue());
+
+        Cell otherDateCell = row.createCell(2);
+        exporter.addTypedColumnValue(otherDateCell, outputs(date));
+        Assert.assertEquals(dateCell.getCellStyle().getIndex(), otherDateCell.getCellStyle().getIndex());
+
+        Cell bool = row.createCell(3);
+        Assert.assertTrue(exporter.addTypedColumnValue(bool, outputs(Boolean.TRUE)));
+        Assert.assertTrue(bool.getBooleanCellValue());
+    }
+
+    @Test
+    public void shouldFallBackToTextForOtherValues() {
+        ExcelExporter exporter = new ExcelExporter();
+        Cell cell = new HSSFWorkbook().createSheet("test").createRow(0).createCell(0);
+
+        Assert.assertFalse(exporter.addTypedColumnValue(cell, outputs("BMW")));
+        Assert.assertFalse(exporter.addTypedColumnValue(cell, outputs(1, 2)));
+        Assert.assertFalse(exporter.addTypedColumnValue(cell, outputs(Double.NaN)));
+        Assert.assertFalse(exporter.addTypedColumnValue(cell, outputs()));
+    }
+}
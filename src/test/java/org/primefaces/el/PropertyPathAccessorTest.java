@@ -0,0 +1,73 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.el;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PropertyPathAccessorTest {
+
+    @Test
+    public void shouldCompileSimplePropertyPaths() {
+        Assert.assertNotNull(PropertyPathAccessor.compile("#{bean.container}", "bean"));
+        Assert.assertNotNull(PropertyPathAccessor.compile("#{bean.container.value}", "bean"));
+        Assert.assertNotNull(PropertyPathAccessor.compile("#{ bean . container }", "bean"));
+    }
+
+    @Test
+    public void shouldNotCompileComplexExpressions() {
+        Assert.assertNull(PropertyPathAccessor.compile("#{bean}", "bean"));
+        Assert.assertNull(PropertyPathAccessor.compile("#{other.container}", "bean"));
+        Assert.assertNull(PropertyPathAccessor.compile("#{bean[column.property]}", "bean"));
+        Assert.assertNull(PropertyPathAccessor.compile("#{bean.container.value += 'x'}", "bean"));
+        Assert.assertNull(PropertyPathAccessor.compile("#{bean.getContainer()}", "bean"));
+        Assert.assertNull(PropertyPathAccessor.compile("Value: #{bean.container}", "bean"));
+        Assert.assertNull(PropertyPathAccessor.compile("#{bean.container}", null));
+    }
+
+    @Test
+    public void shouldReadNestedProperties() {
+        MyContainer container = new MyContainer();
+        container.setValue("PrimeFaces");
+        MyBean bean = new MyBean();
+        bean.setContainer(container);
+
+        Assert.assertEquals(container, PropertyPathAccessor.compile("#{bean.container}", "bean").getValue(bean));
+        Assert.assertEquals("PrimeFaces", PropertyPathAccessor.compile("#{bean.container.value}", "bean").getValue(bean));
+    }
+
+    @Test
+    public void shouldReturnNullForNullIntermediateProperty() {
+        Assert.assertNull(PropertyPathAccessor.compile("#{bean.container.value}", "bean").getValue(new MyBean()));
+        Assert.assertNull(PropertyPathAccessor.compile("#{bean.container.value}", "bean").getValue(null));
+    }
+
+    @Test
+    public void shouldReadMapEntries() {
+        Map<String,Object> row = new HashMap<String, Object>();
+        row.put("brand", "BMW");
+
+        Assert.assertEquals("BMW", PropertyPathAccessor.compile("#{row.brand}", "row").getValue(row));
+        Assert.assertNull(PropertyPathAccessor.compile("#{row.color}", "row").getValue(row));
+    }
+
+    @Test
+    public void shouldNotResolveUnknownProperty() {
+        Assert.assertSame(PropertyPathAccessor.UNRESOLVED, PropertyPathAccessor.compile("#{bean.unknown}", "bean").getValue(new MyBean()));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AllRowsSelectionTest {
+
+    @Test
+    public void shouldSelectAllButExcludedRowKeys() {
+        AllRowsSelection selection = new AllRowsSelection(null, new HashSet<String>(Arrays.asList("2", "3")));
+
+        Assert.assertTrue(selection.isSelected(1));
+        Assert.assertTrue(selection.isSelected("4"));
+        Assert.assertFalse(selection.isSelected(2));
+        Assert.assertFalse(selection.isSelected("3"));
+        Assert.assertFalse(selection.isSelected(null));
+    }
+
+    @Test
+    public void shouldCopyFilters() {
+        Map<String,Object> filters = new HashMap<String,Object>();
+        filters.put("brand", "BMW");
+        AllRowsSelection selection = new AllRowsSelection(filters, null);
+        filters.clear();
+
+        Assert.assertEquals("BMW", selection.getFilters().get("brand"));
+        Assert.assertTrue(selection.getExcludedRowKeys().isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model;
+
+import de.odysseus.el.ExpressionFactoryImpl;
+import de.odysseus.el.util.SimpleContext;
+import java.text.CollationKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import javax.el.ValueExpression;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BeanPropertyComparatorTest {
+
+    private static ValueExpression createValueExpression(String expression) {
+        return new ExpressionFactoryImpl().createValueExpression(new SimpleContext(), expression, Object.class);
+    }
+
+    private static List<String> sortByKeys(final BeanPropertyComparator comparator, String... values) {
+        List<Object> keys = new ArrayList<Object>();
+        final List<String> sorted = new ArrayList<String>();
+        for(String value : values) {
+            Car car = new Car();
+            car.setBrand(value);
+            keys.add(comparator.getSortKey(null, car));
+        }
+
+        Collections.sort(keys, new Comparator<Object>() {
+            public int compare(Object key1, Object key2) {
+                return comparator.compareKeys(null, key1, key2);
+            }
+        });
+
+        for(Object key : keys) {
+            sorted.add(key == null ? null : ((CollationKey) key).getSourceString());
+        }
+
+        return sorted;
+    }
+
+    @Test
+    public void shouldSortByCollationKeysIgnoringCase() {
+        BeanPropertyComparator comparator = new BeanPropertyComparator(createValueExpression("#{car.brand}"), "car", SortOrder.ASCENDING, null, false, Locale.ENGLISH, 1);
+
+        Assert.assertEquals(Arrays.asList("audi", "bmw", "volvo", null), sortByKeys(comparator, "Volvo", null, "BMW", "Audi"));
+    }
+
+    @Test
+    public void shouldReverseNullSortOrderWhenDescending() {
+        BeanPropertyComparator comparator = new BeanPropertyComparator(createValueExpression("#{car.brand}"), "car", SortOrder.DESCENDING, null, true, Locale.ENGLISH, 1);
+
+        Assert.assertEquals(Arrays.asList(null, "Volvo", "BMW", "Audi"), sortByKeys(comparator, "BMW", "Volvo", null, "Audi"));
+    }
+
+    @Test
+    public void shouldKeepNonStringKeys() {
+        BeanPropertyComparator comparator = new BeanPropertyComparator(createValueExpression("#{car.year}"), "car", SortOrder.ASCENDING, null, false, Locale.ENGLISH, 1);
+        Car car = new Car();
+        car.setYear(2014);
+
+        Assert.assertEquals(Integer.valueOf(2014), comparator.getSortKey(null, car));
+    }
+
+    public static class Car {
+
+        private String brand;
+        private Integer year;
+
+        public String getBrand() {
+            return brand;
+        }
+
+        public void setBrand(String brand) {
+            this.brand = brand;
+        }
+
+        public Integer getYear() {
+            return year;
+        }
+
+        public void setYear(Integer year) {
+            this.year = year;
+        }
+    }
+}
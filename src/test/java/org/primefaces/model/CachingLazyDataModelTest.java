@@ -0,0 +1,235 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.primefaces.cache.CacheProvider;
+import org.primefaces.cache.DefaultCacheProvider;
+
+public class CachingLazyDataModelTest {
+
+    private static class CountingLazyDataModel extends LazyDataModel<String> {
+
+        private int loads;
+
+        @Override
+        public List<String> load(int first, int pageSize, String sortField, SortOrder sortOrder, Map<String, Object> filters) {
+            loads++;
+            setRowCount(100);
+
+            return Arrays.asList(String.valueOf(first));
+        }
+
+        @Override
+        public List<String> loadKeyset(int first, int pageSize, List<SortMeta> multiSortMeta, Map<String, Object> filters, PageCursor cursor) {
+            loads++;
+            setRowCount(100);
+
+            return Arrays.asList(String.valueOf(cursor.getRowKey()));
+        }
+    }
+
+    private static class TestCachingLazyDataModel extends CachingLazyDataModel<String> {
+
+        private final CacheProvider cacheProvider;
+
+        public TestCachingLazyDataModel(LazyDataModel<String> delegate) {
+            this(delegate, new DefaultCacheProvider());
+        }
+
+        public TestCachingLazyDataModel(LazyDataModel<String> delegate, CacheProvider cacheProvider) {
+            super(delegate);
+            this.cacheProvider = cacheProvider;
+        }
+
+        @Override
+        protected CacheProvider getCacheProvider() {
+            return cacheProvider;
+        }
+
+        @Override
+        protected ExecutorService getExecutorService() {
+            return executorService;
+        }
+    }
+
+    private static ExecutorService executorService;
+
+    @BeforeClass
+    public static void createExecutorService() {
+        executorService = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterClass
+    public static void shutdownExecutorService() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldServeVisitedPagesFromCache() {
+        CountingLazyDataModel delegate = new CountingLazyDataModel();
+        CachingLazyDataModel<String> model = new TestCachingLazyDataModel(delegate);
+        Map<String,Object> filters = new HashMap<String,Object>();
+        filters.put("brand", "BMW");
+
+        Assert.assertEquals(Arrays.asList("0"), model.load(0, 10, "brand", SortOrder.ASCENDING, filters));
+        Assert.assertEquals(Arrays.asList("10"), model.load(10, 10, "brand", SortOrder.ASCENDING, filters));
+        Assert.assertEquals(Arrays.asList("0"), model.load(0, 10, "brand", SortOrder.ASCENDING, new HashMap<String,Object>(filters)));
+        Assert.assertEquals(2, delegate.loads);
+        Assert.assertEquals(100, model.getRowCount());
+
+        model.load(0, 10, "brand", SortOrder.DESCENDING, filters);
+        model.load(0, 10, "brand", SortOrder.ASCENDING, null);
+        Assert.assertEquals(4, delegate.loads);
+    }
+
+    @Test
+    public void shouldReloadAfterInvalidate() {
+        CountingLazyDataModel delegate = new CountingLazyDataModel();
+        CachingLazyDataModel<String> model = new TestCachingLazyDataModel(delegate);
+
+        model.load(0, 10, null, null, null);
+        model.invalidate();
+        model.load(0, 10, null, null, null);
+
+        Assert.assertEquals(2, delegate.loads);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedPages() {
+        CountingLazyDataModel delegate = new CountingLazyDataModel();
+        CachingLazyDataModel<String> model = new TestCachingLazyDataModel(delegate);
+        model.setMaxSize(2);
+
+        model.load(0, 10, null, null, null);
+        model.load(10, 10, null, null, null);
+        model.load(0, 10, null, null, null);
+        model.load(20, 10, null, null, null);
+        Assert.assertEquals(3, delegate.loads);
+
+        model.load(0, 10, null, null, null);
+        Assert.assertEquals(3, delegate.loads);
+
+        model.load(10, 10, null, null, null);
+        Assert.assertEquals(4, delegate.loads);
+    }
+
+    @Test
+    public void shouldServePrefetchedPageFromCache() throws Exception {
+        CountingLazyDataModel delegate = new CountingLazyDataModel();
+        CachingLazyDataModel<String> model = new TestCachingLazyDataModel(delegate);
+        model.setPrefetch(true);
+
+        Assert.assertEquals(Arrays.asList("0"), model.load(0, 1, null, null, null));
+        awaitPrefetch();
+        Assert.assertEquals(2, delegate.loads);
+
+        Assert.assertEquals(Arrays.asList("1"), model.load(1, 1, null, null, null));
+        awaitPrefetch();
+        Assert.assertEquals(3, delegate.loads);
+        Assert.assertEquals(100, model.getRowCount());
+    }
+
+    @Test
+    public void shouldNotCachePrefetchOfInvalidatedModel() throws Exception {
+        CountingLazyDataModel delegate = new CountingLazyDataModel();
+        CachingLazyDataModel<String> model = new TestCachingLazyDataModel(delegate);
+        model.setPrefetch(true);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        executorService.execute(new Runnable() {
+            public void run() {
+                try {
+                    latch.await();
+                }
+                catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        model.load(0, 1, null, null, null);
+        model.invalidate();
+        latch.countDown();
+        awaitPrefetch();
+        Assert.assertEquals(1, delegate.loads);
+
+        model.setPrefetch(false);
+        Assert.assertEquals(Arrays.asList("1"), model.load(1, 1, null, null, null));
+        Assert.assertEquals(2, delegate.loads);
+    }
+
+    @Test
+    public void shouldCacheKeysetPagesPerCursor() {
+        CountingLazyDataModel delegate = new CountingLazyDataModel();
+        CachingLazyDataModel<String> model = new TestCachingLazyDataModel(delegate);
+
+        Assert.assertEquals(Arrays.asList("a"), model.loadKeyset(10, 10, null, null, new PageCursor(new Object[] {"x"}, "a", false)));
+        Assert.assertEquals(Arrays.asList("b"), model.loadKeyset(10, 10, null, null, new PageCursor(new Object[] {"y"}, "b", false)));
+        Assert.assertEquals(Arrays.asList("a"), model.loadKeyset(10, 10, null, null, new PageCursor(new Object[] {"x"}, "a", false)));
+        Assert.assertEquals(2, delegate.loads);
+    }
+
+    @Test
+    public void shouldEvictExpiredPagesOfOtherModels() throws Exception {
+        final Map<String,Object> entries = new HashMap<String,Object>();
+        CacheProvider cacheProvider = new CacheProvider() {
+            public Object get(String region, String key) {
+                return entries.get(region + key);
+            }
+
+            public void put(String region, String key, Object object) {
+                entries.put(region + key, object);
+            }
+
+            public void remove(String region, String key) {
+                entries.remove(region + key);
+            }
+
+            public void clear() {
+                entries.clear();
+            }
+        };
+
+        CachingLazyDataModel<String> discarded = new TestCachingLazyDataModel(new CountingLazyDataModel(), cacheProvider);
+        discarded.setTimeToLive(10);
+        discarded.load(0, 10, null, null, null);
+        discarded.load(10, 10, null, null, null);
+        Assert.assertEquals(2, entries.size());
+
+        Thread.sleep(1100);
+
+        CachingLazyDataModel<String> model = new TestCachingLazyDataModel(new CountingLazyDataModel(), cacheProvider);
+        model.load(0, 10, null, null, null);
+        Assert.assertEquals(1, entries.size());
+    }
+
+    private void awaitPrefetch() throws Exception {
+        executorService.submit(new Runnable() {
+            public void run() {}
+        }).get();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LazyDataModelTest {
+
+    private static class CountingLazyDataModel extends LazyDataModel<String> {
+
+        private int counts;
+
+        @Override
+        public List<String> load(int first, int pageSize, String sortField, SortOrder sortOrder, Map<String, Object> filters) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        protected int countRows(Map<String, Object> filters) {
+            counts++;
+            return (filters == null || filters.isEmpty()) ? 100 : 10;
+        }
+    }
+
+    @Test
+    public void shouldNotCountWithoutCountImplementation() {
+        LazyDataModel<String> model = new LazyDataModel<String>() {};
+
+        Assert.assertEquals(-1, model.count(new HashMap<String,Object>()));
+    }
+
+    @Test
+    public void shouldCountOncePerFilters() {
+        CountingLazyDataModel model = new CountingLazyDataModel();
+        Map<String,Object> filters = new HashMap<String,Object>();
+        filters.put("brand", "BMW");
+
+        Assert.assertEquals(10, model.count(filters));
+        Assert.assertEquals(10, model.count(new HashMap<String,Object>(filters)));
+        Assert.assertEquals(100, model.count(null));
+        Assert.assertEquals(100, model.count(new HashMap<String,Object>()));
+        Assert.assertEquals(2, model.counts);
+
+        filters.put("brand", new String[]{"BMW", "Audi"});
+        model.count(filters);
+        Assert.assertEquals(3, model.counts);
+
+        model.invalidateRowCount();
+        model.count(null);
+        Assert.assertEquals(4, model.counts);
+    }
+}
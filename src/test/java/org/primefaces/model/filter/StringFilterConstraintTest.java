@@ -0,0 +1,60 @@
+/*
+ * Copyright 2009-2014 PrimeTek.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.primefaces.model.filter;
+
+import java.util.Locale;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringFilterConstraintTest {
+
+    @Test
+    public void shouldMatchIgnoringCase() {
+        Assert.assertTrue(new ContainsFilterConstraint().applies("PrimeFaces", " face ", Locale.ENGLISH));
+        Assert.assertTrue(new StartsWithFilterConstraint().applies("PrimeFaces", "PRIME", Locale.ENGLISH));
+        Assert.assertTrue(new EndsWithFilterConstraint().applies("PrimeFaces", "faces", Locale.ENGLISH));
+        Assert.assertTrue(new ExactFilterConstraint().applies("PrimeFaces", "primefaces", Locale.ENGLISH));
+        Assert.assertTrue(new GlobalFilterConstraint().applies(Integer.valueOf(2014), "01", Locale.ENGLISH));
+    }
+
+    @Test
+    public void shouldNotMatch() {
+        Assert.assertFalse(new ContainsFilterConstraint().applies("PrimeFaces", "ui", Locale.ENGLISH));
+        Assert.assertFalse(new StartsWithFilterConstraint().applies("PrimeFaces", "faces", Locale.ENGLISH));
+        Assert.assertFalse(new EndsWithFilterConstraint().applies("PrimeFaces", "prime", Locale.ENGLISH));
+        Assert.assertFalse(new ExactFilterConstraint().applies("PrimeFaces", "prime", Locale.ENGLISH));
+        Assert.assertFalse(new EndsWithFilterConstraint().applies("UI", "primeui", Locale.ENGLISH));
+        Assert.assertFalse(new ContainsFilterConstraint().applies(null, "prime", Locale.ENGLISH));
+    }
+
+    @Test
+    public void shouldMatchEverythingForEmptyFilter() {
+        PreparedFilterConstraint constraint = new ContainsFilterConstraint().prepare("  ", Locale.ENGLISH);
+
+        Assert.assertTrue(constraint.applies(null));
+        Assert.assertTrue(constraint.applies("PrimeFaces"));
+        Assert.assertTrue(new StartsWithFilterConstraint().applies("PrimeFaces", null, Locale.ENGLISH));
+    }
+
+    @Test
+    public void shouldApplyLocaleSpecificLowerCase() {
+        Locale turkish = new Locale("tr");
+
+        Assert.assertTrue(new ExactFilterConstraint().applies("ISTANBUL", "\u0131stanbul", turkish));
+        Assert.assertFalse(new ExactFilterConstraint().applies("ISTANBUL", "istanbul", turkish));
+        Assert.assertTrue(new ContainsFilterConstraint().applies("\u039F\u0394\u039F\u03A3", "\u03BF\u03C2", Locale.ENGLISH));
+    }
+}